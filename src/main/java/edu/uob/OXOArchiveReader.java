@@ -0,0 +1,199 @@
+package edu.uob;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.Channels;
+import java.nio.file.Path;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+//Streams games out of a file written by OXOArchiveWriter, holding no more than one block in memory
+public class OXOArchiveReader implements Closeable {
+    private final RandomAccessFile file;
+    private final long indexOffset;
+    private final long gameCount;
+    private final long[] blockOffsets;
+    private final long[] blockFirstGames;
+    private final Inflater inflater = new Inflater();
+    private DataInputStream input;
+    private byte[] compressed = new byte[0];
+    private byte[] raw = new byte[0];
+    private int rawLength;
+    private int rawPosition;
+    private int gamesLeftInBlock;
+    private long nextBlockOffset;
+    private long nextGame;
+
+    public OXOArchiveReader(Path path) throws IOException {
+        file = new RandomAccessFile(path.toFile(), "r");
+        try {
+            if (file.length() < 8 + OXOArchiveWriter.FOOTER_LENGTH || file.readInt() != OXOArchiveWriter.MAGIC) {
+                throw new IOException(path + " is not an OXO archive");
+            }
+            int version = file.readInt();
+            if (version != OXOArchiveWriter.VERSION) {
+                throw new IOException("Unsupported archive version " + version);
+            }
+            file.seek(file.length() - OXOArchiveWriter.FOOTER_LENGTH);
+            indexOffset = file.readLong();
+            gameCount = file.readLong();
+            if (file.readInt() != OXOArchiveWriter.MAGIC) {
+                throw new IOException(path + " is truncated (no footer)");
+            }
+            if (indexOffset < 8 || indexOffset > file.length() - OXOArchiveWriter.FOOTER_LENGTH - 4) {
+                throw new IOException(path + " has a corrupt footer");
+            }
+            file.seek(indexOffset);
+            int blockCount = file.readInt();
+            //each index entry is two longs, and they all have to fit before the footer
+            if (blockCount < 0 || blockCount > (file.length() - OXOArchiveWriter.FOOTER_LENGTH - indexOffset - 4) / 16) {
+                throw new IOException(path + " has a corrupt block index");
+            }
+            blockOffsets = new long[blockCount];
+            blockFirstGames = new long[blockCount];
+            for (int i = 0; i < blockCount; i++) {
+                blockOffsets[i] = file.readLong();
+                blockFirstGames[i] = file.readLong();
+            }
+        } catch (IOException exception) {
+            file.close();
+            throw exception;
+        }
+        seekToBlock(0);
+    }
+
+    public long getGameCount() {
+        return gameCount;
+    }
+
+    public int getBlockCount() {
+        return blockOffsets.length;
+    }
+
+    public boolean hasNext() {
+        return nextGame < gameCount;
+    }
+
+    public OXOGameRecord next() throws IOException {
+        if (!hasNext()) {
+            throw new EOFException("No more games in archive");
+        }
+        if (gamesLeftInBlock == 0) {
+            readBlock();
+        }
+        int rows = readVarint();
+        int cols = readVarint();
+        int winThreshold = readVarint();
+        char[] players = new char[readCount("player")];
+        for (int i = 0; i < players.length; i++) {
+            players[i] = (char) readVarint();
+        }
+        int[] moves = new int[readCount("move")];
+        for (int i = 0; i < moves.length; i++) {
+            moves[i] = readVarint();
+        }
+        gamesLeftInBlock--;
+        nextGame++;
+        try {
+            return new OXOGameRecord(rows, cols, winThreshold, players, moves);
+        } catch (IllegalArgumentException exception) {
+            throw new IOException("Game " + (nextGame - 1) + " is corrupt", exception);
+        }
+    }
+
+    //Jump straight to a game using the block index, decoding only the block that contains it
+    public void seek(long gameNumber) throws IOException {
+        if (gameNumber < 0 || gameNumber > gameCount) {
+            throw new IndexOutOfBoundsException("Game " + gameNumber + " is not in the archive");
+        }
+        int low = 0;
+        int high = blockOffsets.length - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (blockFirstGames[mid] <= gameNumber) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        seekToBlock(low);
+        while (nextGame < gameNumber) {
+            next();
+        }
+    }
+
+    public void close() throws IOException {
+        inflater.end();
+        file.close();
+    }
+
+    private void seekToBlock(int block) throws IOException {
+        nextBlockOffset = blockOffsets.length == 0 ? indexOffset : blockOffsets[block];
+        nextGame = blockOffsets.length == 0 ? 0 : blockFirstGames[block];
+        gamesLeftInBlock = 0;
+        file.seek(nextBlockOffset);
+        input = new DataInputStream(new BufferedInputStream(Channels.newInputStream(file.getChannel())));
+    }
+
+    private void readBlock() throws IOException {
+        gamesLeftInBlock = input.readInt();
+        rawLength = input.readInt();
+        int compressedLength = input.readInt();
+        //lengths come straight from the file, so check them before sizing any buffer: the compressed
+        //bytes have to fit before the index, and deflate never expands more than about 1032:1
+        if (gamesLeftInBlock < 1 || compressedLength < 0 || compressedLength > indexOffset - nextBlockOffset - 12
+                || rawLength < 0 || rawLength > compressedLength * 1032L + 64) {
+            throw new IOException("Block at " + nextBlockOffset + " is corrupt");
+        }
+        if (compressed.length < compressedLength) {
+            compressed = new byte[compressedLength];
+        }
+        if (raw.length < rawLength) {
+            raw = new byte[rawLength];
+        }
+        input.readFully(compressed, 0, compressedLength);
+        inflater.reset();
+        inflater.setInput(compressed, 0, compressedLength);
+        try {
+            int inflated = 0;
+            while (inflated < rawLength && !inflater.finished() && !inflater.needsInput()) {
+                inflated += inflater.inflate(raw, inflated, rawLength - inflated);
+            }
+            if (inflated != rawLength) {
+                throw new IOException("Block at " + nextBlockOffset + " is corrupt");
+            }
+        } catch (DataFormatException exception) {
+            throw new IOException("Block at " + nextBlockOffset + " is corrupt", exception);
+        }
+        rawPosition = 0;
+        nextBlockOffset += 12 + compressedLength;
+    }
+
+    //A count of varints still to come, each of which takes at least one byte of what is left of the block
+    private int readCount(String what) throws IOException {
+        int count = readVarint();
+        if (count < 0 || count > rawLength - rawPosition) {
+            throw new IOException("Game " + nextGame + " has a corrupt " + what + " count");
+        }
+        return count;
+    }
+
+    private int readVarint() throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            if (rawPosition >= rawLength) {
+                throw new IOException("Game record runs past the end of its block");
+            }
+            int b = raw[rawPosition++];
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Varint is too long");
+    }
+}
@@ -0,0 +1,117 @@
+package edu.uob;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.zip.Deflater;
+
+//Archive layout:
+//  header: int MAGIC, int VERSION
+//  blocks: int gameCount, int rawLength, int compressedLength, deflated bytes
+//          (each game is varints: rows, cols, threshold, players, letters..., moves, cells...)
+//  index:  int blockCount, then (long blockOffset, long firstGameNumber) per block
+//  footer: long indexOffset, long gameCount, int MAGIC
+public class OXOArchiveWriter implements Closeable {
+    static final int MAGIC = 0x4F584F41; // "OXOA"
+    static final int VERSION = 1;
+    static final int FOOTER_LENGTH = 8 + 8 + 4;
+
+    private final DataOutputStream output;
+    private final int gamesPerBlock;
+    private final ByteArrayOutputStream block = new ByteArrayOutputStream();
+    private final Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+    private final byte[] deflateBuffer = new byte[8192];
+    private final ArrayList<long[]> index = new ArrayList<long[]>();
+    private long position;
+    private long gameCount;
+    private int gamesInBlock;
+
+    public OXOArchiveWriter(Path file, int gamesPerBlock) throws IOException {
+        if (gamesPerBlock < 1) {
+            throw new IllegalArgumentException("A block must hold at least one game");
+        }
+        this.gamesPerBlock = gamesPerBlock;
+        output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file.toFile())));
+        output.writeInt(MAGIC);
+        output.writeInt(VERSION);
+        position = 8;
+    }
+
+    public void write(OXOGameRecord game) throws IOException {
+        writeVarint(block, game.getNumberOfRows());
+        writeVarint(block, game.getNumberOfColumns());
+        writeVarint(block, game.getWinThreshold());
+        writeVarint(block, game.getNumberOfPlayers());
+        for (int i = 0; i < game.getNumberOfPlayers(); i++) {
+            writeVarint(block, game.getPlayerLetter(i));
+        }
+        writeVarint(block, game.getNumberOfMoves());
+        for (int i = 0; i < game.getNumberOfMoves(); i++) {
+            writeVarint(block, game.getMove(i));
+        }
+        gameCount++;
+        gamesInBlock++;
+        if (gamesInBlock == gamesPerBlock) {
+            flushBlock();
+        }
+    }
+
+    public long getGameCount() {
+        return gameCount;
+    }
+
+    public void close() throws IOException {
+        try {
+            flushBlock();
+            long indexOffset = position;
+            output.writeInt(index.size());
+            for (long[] entry : index) {
+                output.writeLong(entry[0]);
+                output.writeLong(entry[1]);
+            }
+            output.writeLong(indexOffset);
+            output.writeLong(gameCount);
+            output.writeInt(MAGIC);
+        } finally {
+            deflater.end();
+            output.close();
+        }
+    }
+
+    private void flushBlock() throws IOException {
+        if (gamesInBlock == 0) {
+            return;
+        }
+        byte[] raw = block.toByteArray();
+        deflater.reset();
+        deflater.setInput(raw);
+        deflater.finish();
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(raw.length / 2 + 16);
+        while (!deflater.finished()) {
+            int length = deflater.deflate(deflateBuffer);
+            compressed.write(deflateBuffer, 0, length);
+        }
+        index.add(new long[] {position, gameCount - gamesInBlock});
+        output.writeInt(gamesInBlock);
+        output.writeInt(raw.length);
+        output.writeInt(compressed.size());
+        compressed.writeTo(output);
+        position += 12 + compressed.size();
+        block.reset();
+        gamesInBlock = 0;
+    }
+
+    //LEB128: seven bits per byte, high bit set on every byte but the last
+    static void writeVarint(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+}
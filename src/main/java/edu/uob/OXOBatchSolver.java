@@ -0,0 +1,199 @@
+package edu.uob;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+//Solves batches of two-player positions on all cores. Positions that are the same up to rotation,
+//reflection and player letters are only searched once; the answer is kept in a cache shared by
+//every batch and mapped back onto each position's own orientation.
+public class OXOBatchSolver implements AutoCloseable {
+    private final ExecutorService executor;
+    private final int maxDepth;
+    //canonical hash -> answer on the canonical board (filled in once the search finishes)
+    private final ConcurrentHashMap<Long, CompletableFuture<Solution>> cache = new ConcurrentHashMap<Long, CompletableFuture<Solution>>();
+
+    public static class Solution {
+        //which position in the batch this answers
+        public final int index;
+        public final int bestRow;
+        public final int bestCol;
+        public final long score;
+        //moves by the player to move until they win / lose whatever the opponent does, or -1
+        public final int forcedWinIn;
+        public final int forcedLossIn;
+        //deepest search that was run, in plies
+        public final int depth;
+        public final long nodes;
+        public final long solveNanos;
+        public final boolean fromCache;
+        //why the search failed, or null if it didn't; a failed position has no best move
+        public final Throwable failure;
+
+        Solution(int index, int bestRow, int bestCol, long score, int depth, long nodes, long solveNanos, boolean fromCache) {
+            this.index = index;
+            this.bestRow = bestRow;
+            this.bestCol = bestCol;
+            this.score = score;
+            this.depth = depth;
+            this.nodes = nodes;
+            this.solveNanos = solveNanos;
+            this.fromCache = fromCache;
+            failure = null;
+            forcedWinIn = OXOSearch.isForcedWin(score) ? (OXOSearch.pliesToResult(score) + 1) / 2 : -1;
+            forcedLossIn = OXOSearch.isForcedLoss(score) ? (OXOSearch.pliesToResult(score) + 1) / 2 : -1;
+        }
+
+        Solution(int index, Throwable failure, boolean fromCache) {
+            this.index = index;
+            this.failure = failure;
+            this.fromCache = fromCache;
+            bestRow = -1;
+            bestCol = -1;
+            score = 0;
+            depth = 0;
+            nodes = 0;
+            solveNanos = 0;
+            forcedWinIn = -1;
+            forcedLossIn = -1;
+        }
+
+        public boolean isFailed() {
+            return failure != null;
+        }
+    }
+
+    public OXOBatchSolver(int threads, int maxDepth) {
+        executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "oxo-solver");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.maxDepth = maxDepth;
+    }
+
+    public OXOBatchSolver(int maxDepth) {
+        this(Runtime.getRuntime().availableProcessors(), maxDepth);
+    }
+
+    //Hands each answer to listener as soon as it is ready (from solver threads, so the listener must
+    //be thread-safe) and returns once every position has been answered. The positions aren't changed.
+    //A search that throws is answered with a failed Solution, for it and for every position that was
+    //waiting on it, and isn't cached, so a later batch tries again.
+    public void solveAll(List<OXOModel> positions, Consumer<Solution> listener) throws InterruptedException {
+        //check the whole batch first, so a bad position can't leave earlier ones running with nobody waiting
+        for (int i = 0; i < positions.size(); i++) {
+            OXOModel position = positions.get(i);
+            if (position.getNumberOfPlayers() != 2) {
+                throw new IllegalArgumentException("Position " + i + " has " + position.getNumberOfPlayers() + " players; only two-player games can be solved");
+            }
+        }
+        CountDownLatch remaining = new CountDownLatch(positions.size());
+        for (int i = 0; i < positions.size(); i++) {
+            OXOModel position = positions.get(i);
+            int index = i;
+            int[] transform = new int[1];
+            long hash = OXOPositionHash.canonicalHash(position, transform);
+            int rows = position.getNumberOfRows();
+            int cols = position.getNumberOfColumns();
+            CompletableFuture<Solution> answer = new CompletableFuture<Solution>();
+            CompletableFuture<Solution> existing = cache.putIfAbsent(hash, answer);
+            if (existing == null) {
+                //copy, so the search never touches the caller's model and runs can overlap
+                OXOModel copy = OXOGameState.load(OXOGameState.save(position));
+                executor.execute(() -> {
+                    try {
+                        Solution solved;
+                        try {
+                            solved = solve(copy, index);
+                        } catch (Throwable exception) {
+                            //Errors too: a future left incomplete would hang every batch waiting on it
+                            cache.remove(hash, answer);
+                            answer.completeExceptionally(exception);
+                            listener.accept(new Solution(index, exception, false));
+                            return;
+                        }
+                        int canonicalMove = solved.bestRow < 0 ? -1 : OXOPositionHash.transformCell(transform[0], solved.bestRow * cols + solved.bestCol, rows, cols);
+                        answer.complete(new Solution(-1, canonicalMove < 0 ? -1 : canonicalMove / cols, canonicalMove < 0 ? -1 : canonicalMove % cols,
+                                solved.score, solved.depth, solved.nodes, solved.solveNanos, false));
+                        listener.accept(solved);
+                    } finally {
+                        remaining.countDown();
+                    }
+                });
+            } else {
+                existing.whenComplete((cached, failure) -> {
+                    try {
+                        if (cached != null) {
+                            listener.accept(fromCache(cached, index, transform[0], rows, cols));
+                        } else {
+                            listener.accept(new Solution(index, failureOf(failure), true));
+                        }
+                    } finally {
+                        remaining.countDown();
+                    }
+                });
+            }
+        }
+        remaining.await();
+    }
+
+    public int getCacheSize() {
+        return cache.size();
+    }
+
+    public void clearCache() {
+        cache.clear();
+    }
+
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    //Iterative deepening: stops as soon as a forced result turns up, or the board would be full
+    Solution solve(OXOModel model, int index) {
+        long start = System.nanoTime();
+        OXOSearch search = new OXOSearch(model);
+        int emptyCells = 0;
+        for (int row = 0; row < model.getNumberOfRows(); row++) {
+            for (int col = 0; col < model.getNumberOfColumns(); col++) {
+                if (model.getCellOwner(row, col) == null) {
+                    emptyCells++;
+                }
+            }
+        }
+        int best = -1;
+        long score = 0;
+        long nodes = 0;
+        int depth = 0;
+        while (depth < Math.min(maxDepth, emptyCells)) {
+            depth++;
+            best = search.bestMove(depth);
+            score = search.getLastScore();
+            nodes += search.getNodes();
+            if (OXOSearch.isForcedWin(score) || OXOSearch.isForcedLoss(score)) {
+                break;
+            }
+        }
+        int cols = model.getNumberOfColumns();
+        return new Solution(index, best < 0 ? -1 : best / cols, best < 0 ? -1 : best % cols, score, depth, nodes, System.nanoTime() - start, false);
+    }
+
+    //whenComplete may hand the search's exception over wrapped in a CompletionException
+    private static Throwable failureOf(Throwable failure) {
+        return failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+    }
+
+    private static Solution fromCache(Solution canonical, int index, int transform, int rows, int cols) {
+        int move = -1;
+        if (canonical.bestRow >= 0) {
+            move = OXOPositionHash.untransformCell(transform, canonical.bestRow * cols + canonical.bestCol, rows, cols);
+        }
+        return new Solution(index, move < 0 ? -1 : move / cols, move < 0 ? -1 : move % cols, canonical.score, canonical.depth, 0, 0, true);
+    }
+}
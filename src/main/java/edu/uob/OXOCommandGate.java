@@ -0,0 +1,206 @@
+package edu.uob;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+//Sits in front of a controller: throttles each client with its own token bucket and throws out
+//commands that can't possibly be valid moves before they get to handleIncomingCommand (where
+//every bad command would cost an exception).
+public class OXOCommandGate {
+    public enum Verdict { ACCEPTED, THROTTLED, MALFORMED, REJECTED }
+
+    static final int DEFAULT_MAX_CLIENTS = 100000;
+    //idle buckets are swept out once every this many submits (a power of two)
+    static final int SWEEP_INTERVAL = 1024;
+
+    private final OXOController controller;
+    private final ConcurrentHashMap<String, TokenBucket> buckets = new ConcurrentHashMap<String, TokenBucket>();
+    //per-client verdict counts, kept apart from the buckets so that sweeping out an idle bucket
+    //doesn't lose the client's history (see getCount(String, Verdict))
+    private final ConcurrentHashMap<String, LongAdder[]> clientCounts = new ConcurrentHashMap<String, LongAdder[]>();
+    private final long nanosPerToken;
+    private final long burstNanos;
+    private final LongSupplier clock;
+    private final LongAdder[] counts = new LongAdder[Verdict.values().length];
+    private final int maxClients;
+    private final AtomicInteger submitsSinceSweep = new AtomicInteger();
+    //when the client table / the per-client counts were last swept because they were full
+    private final AtomicLong lastFullSweep;
+    private final AtomicLong lastCountsTrim;
+
+    public OXOCommandGate(OXOController controller, double commandsPerSecond, int burst) {
+        this(controller, commandsPerSecond, burst, System::nanoTime);
+    }
+
+    //clock gives the time in nanoseconds; tests pass their own so they don't have to sleep
+    public OXOCommandGate(OXOController controller, double commandsPerSecond, int burst, LongSupplier clock) {
+        this(controller, commandsPerSecond, burst, DEFAULT_MAX_CLIENTS, clock);
+    }
+
+    //At most maxClients buckets are kept; once they are all in use, commands from new clients are throttled.
+    //Per-client counts are kept for up to maxClients clients too
+    public OXOCommandGate(OXOController controller, double commandsPerSecond, int burst, int maxClients, LongSupplier clock) {
+        if (commandsPerSecond <= 0 || burst < 1 || maxClients < 1) {
+            throw new IllegalArgumentException("Rate, burst and client limit must be positive");
+        }
+        this.controller = controller;
+        this.maxClients = maxClients;
+        this.clock = clock;
+        nanosPerToken = (long) (1000000000L / commandsPerSecond);
+        burstNanos = nanosPerToken * (burst - 1);
+        lastFullSweep = new AtomicLong(clock.getAsLong() - nanosPerToken);
+        lastCountsTrim = new AtomicLong(clock.getAsLong() - nanosPerToken);
+        fill(counts);
+    }
+
+    public Verdict submit(String clientId, String command) {
+        long now = clock.getAsLong();
+        if ((submitsSinceSweep.incrementAndGet() & (SWEEP_INTERVAL - 1)) == 0) {
+            forgetIdleClients(now);
+        }
+        TokenBucket bucket = bucketFor(clientId, now);
+        Verdict verdict;
+        if (bucket == null || !bucket.tryTake(now)) {
+            verdict = Verdict.THROTTLED;
+        } else if (!isWellFormed(command)) {
+            verdict = Verdict.MALFORMED;
+        } else {
+            verdict = forward(command);
+        }
+        counts[verdict.ordinal()].increment();
+        LongAdder[] mine = bucket != null ? bucket.counts : countsFor(clientId, now);
+        if (mine != null) {
+            mine[verdict.ordinal()].increment();
+        }
+        return verdict;
+    }
+
+    //The client's bucket, or null if the table is full of clients that are all still active
+    private TokenBucket bucketFor(String clientId, long now) {
+        TokenBucket bucket = buckets.get(clientId);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (buckets.size() >= maxClients) {
+            //nothing refills faster than one token, so sweeping a full table more often than that is wasted work
+            long last = lastFullSweep.get();
+            if (now - last >= nanosPerToken && lastFullSweep.compareAndSet(last, now)) {
+                forgetIdleClients(now);
+            }
+            if (buckets.size() >= maxClients) {
+                return null;
+            }
+        }
+        LongAdder[] mine = countsFor(clientId, now);
+        return buckets.computeIfAbsent(clientId, id -> new TokenBucket(mine));
+    }
+
+    //The client's counts, or null if counts are already being kept for maxClients clients that all
+    //still have a bucket. Clients without a bucket are let go of first when there's no room; what
+    //they did stays in the overall totals
+    private LongAdder[] countsFor(String clientId, long now) {
+        LongAdder[] mine = clientCounts.get(clientId);
+        if (mine != null) {
+            return mine;
+        }
+        if (clientCounts.size() >= maxClients) {
+            long last = lastCountsTrim.get();
+            if (now - last >= nanosPerToken && lastCountsTrim.compareAndSet(last, now)) {
+                clientCounts.keySet().removeIf(id -> !buckets.containsKey(id));
+            }
+            if (clientCounts.size() >= maxClients) {
+                return null;
+            }
+        }
+        return clientCounts.computeIfAbsent(clientId, id -> fill(new LongAdder[Verdict.values().length]));
+    }
+
+    private static LongAdder[] fill(LongAdder[] adders) {
+        for (int i = 0; i < adders.length; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+
+    public long getCount(Verdict verdict) {
+        return counts[verdict.ordinal()].sum();
+    }
+
+    //Everything the client has sent so far, even across idle spells that cost it its bucket. Only
+    //when more than maxClients clients have been seen are the counts of idle ones dropped (they still
+    //count towards getCount(Verdict))
+    public long getCount(String clientId, Verdict verdict) {
+        LongAdder[] mine = clientCounts.get(clientId);
+        return mine == null ? 0 : mine[verdict.ordinal()].sum();
+    }
+
+    public int getNumberOfClients() {
+        return buckets.size();
+    }
+
+    //Drops clients whose buckets have refilled completely - they would start from a full bucket anyway.
+    //Their counts are kept. submit does this by itself every SWEEP_INTERVAL commands and when the
+    //client table is full
+    public void forgetIdleClients() {
+        forgetIdleClients(clock.getAsLong());
+    }
+
+    private void forgetIdleClients(long now) {
+        buckets.values().removeIf(bucket -> bucket.theoreticalArrival.get() - now <= 0);
+    }
+
+    private Verdict forward(String command) {
+        synchronized (controller) {
+            try {
+                controller.handleIncomingCommand(command);
+                return Verdict.ACCEPTED;
+            } catch (OXOMoveException exception) {
+                return Verdict.REJECTED;
+            }
+        }
+    }
+
+    //A letter (either case, like the controller) then a digit from 1, and inside the current board;
+    //anything else would only be thrown out by the controller
+    boolean isWellFormed(String command) {
+        if (command == null || command.length() != 2) {
+            return false;
+        }
+        char rowLetter = Character.toLowerCase(command.charAt(0));
+        char colDigit = command.charAt(1);
+        if (rowLetter < 'a' || rowLetter > 'z' || colDigit < '1' || colDigit > '9') {
+            return false;
+        }
+        OXOModel model = controller.gameModel;
+        return rowLetter - 'a' < model.getNumberOfRows() && colDigit - '1' < model.getNumberOfColumns();
+    }
+
+    //Token bucket kept as a single "theoretical arrival time" (the GCRA form of the algorithm): each
+    //command pushes it one token's worth into the future, and a command is refused if that would put
+    //it more than a burst ahead of now. One CAS per command and no locks.
+    private class TokenBucket {
+        final AtomicLong theoreticalArrival = new AtomicLong(clock.getAsLong());
+        //the client's entry in clientCounts, looked up once here rather than on every command (may be null)
+        final LongAdder[] counts;
+
+        TokenBucket(LongAdder[] counts) {
+            this.counts = counts;
+        }
+
+        boolean tryTake(long now) {
+            while (true) {
+                long arrival = theoreticalArrival.get();
+                long start = arrival - now > 0 ? arrival : now;
+                if (start - now > burstNanos) {
+                    return false;
+                }
+                if (theoreticalArrival.compareAndSet(arrival, start + nanosPerToken)) {
+                    return true;
+                }
+            }
+        }
+    }
+}
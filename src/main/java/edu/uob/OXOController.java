@@ -3,6 +3,9 @@ import edu.uob.OXOMoveException.*;
 
 public class OXOController {
     OXOModel gameModel;
+    OXOWinRule winRule = new OXOWinRule.StraightLine();
+    //connect-four style: a move drops to the lowest free cell of its column
+    boolean gravity;
 
     public OXOController(OXOModel model) {
         gameModel = model;
@@ -10,38 +13,41 @@ public class OXOController {
 
     public void handleIncomingCommand(String command) throws OXOMoveException {
 
-        int row = command.charAt(0) - 'a';
         int length = command.length();
         //Is string length 2?
-        if (length != 2 || length == 1){
+        if (length != 2){
             throw new InvalidIdentifierLengthException(length);
         }
-        int col = Character.getNumericValue(command.charAt(1)) - 1;
+        //Extract the row letter and column number from the command (rows are case-insensitive)
+        char rowLetter = Character.toLowerCase(command.charAt(0));
+        char colDigit = command.charAt(1);
+        int row = rowLetter - 'a';
+        int col = Character.getNumericValue(colDigit) - 1;
         if (checkForWin() == true) {
             throw new CellAlreadyTakenException(row, col);
         }
-        //Convert the command to lowercase
-        command = command.toLowerCase();
-
-        //Extract the row letter and column number from the command
-        char rowLetter = command.charAt(0);
 
-        char colDigit = command.charAt(1);
         //Is Row a letter?
-        if (!Character.isLetter(rowLetter) || row > 26){
+        if (rowLetter < 'a' || rowLetter > 'z'){
             throw new InvalidIdentifierCharacterException(RowOrColumn.ROW, command.charAt(0));
         }
         //Is Column a digit?
         if (!Character.isDigit(colDigit) || col > 26){
-            throw new InvalidIdentifierCharacterException(RowOrColumn.COLUMN, command.charAt(1));
+            throw new InvalidIdentifierCharacterException(RowOrColumn.COLUMN, colDigit);
         }
-        //Is it within the range?
+        //Is it within the range? (column 0 is a digit but not a column)
         if (row >= gameModel.getNumberOfRows()) {
             throw new OutsideCellRangeException(RowOrColumn.ROW, row);
         }
-        if (col >= gameModel.getNumberOfColumns()) {
+        if (col < 0 || col >= gameModel.getNumberOfColumns()) {
             throw new OutsideCellRangeException(RowOrColumn.COLUMN, col);
         }
+        if (gravity) {
+            row = lowestFreeRow(col);
+            if (row < 0) {
+                throw new CellAlreadyTakenException(0, col);
+            }
+        }
         //Get the current player
         OXOPlayer currentPlayer = gameModel.getPlayerByNumber(gameModel.getCurrentPlayerNumber());
 
@@ -101,101 +107,37 @@ public class OXOController {
         gameModel.setWinner(null); // reset the winner
         gameModel.setDrawnReset();
     }
-    public boolean checkForWin() {
-        if (checkHorizontalWin() || checkVerticalWin() || checkDiagonalWin() || checkDraw()) {
-            return true;
-        } else {
-            return false;
-        }
+    public void setWinRule(OXOWinRule rule) {
+        winRule = rule;
     }
-    private boolean checkHorizontalWin() {
-        OXOPlayer currentPlayer = gameModel.getPlayerByNumber(gameModel.getCurrentPlayerNumber());
-        for (int row = 0; row < gameModel.getNumberOfRows(); row++) {
-            int count = 0;
-            for (int col = 0; col < gameModel.getNumberOfColumns(); col++) {
-                if (gameModel.getCellOwner(row, col) == currentPlayer) {
-                    count++;
-                    if (count == gameModel.getWinThreshold()) {
-                        gameModel.setWinner(currentPlayer);
-                        return true; // We have a win!
-                    }
-                } else {
-                    count = 0;
-                }
-            }
-        }
-        return false;
+    public OXOWinRule getWinRule() {
+        return winRule;
     }
-    private boolean checkVerticalWin() {
-        OXOPlayer currentPlayer = gameModel.getPlayerByNumber(gameModel.getCurrentPlayerNumber());
-        for (int col = 0; col < gameModel.getNumberOfColumns(); col++) {
-            int count = 0;
-            for (int row = 0; row < gameModel.getNumberOfRows(); row++) {
-                if (gameModel.getCellOwner(row, col) == currentPlayer) {
-                    count++;
-                    if (count == gameModel.getWinThreshold()) {
-                        gameModel.setWinner(currentPlayer);
-                        return true;
-                    }
-                } else {
-                    count = 0;
-                }
-            }
-        }
-        return false;
+    public void setGravity(boolean dropPieces) {
+        gravity = dropPieces;
     }
-    private boolean checkDiagonalWin() {
-        return checkDiagonalWinTopLeftToBottomRight() || checkDiagonalWinTopRightToBottomLeft();
+    public boolean isGravity() {
+        return gravity;
     }
-    private boolean checkDiagonalWinTopLeftToBottomRight() {
-        OXOPlayer currentPlayer = gameModel.getPlayerByNumber(gameModel.getCurrentPlayerNumber());
-        for (int i = 0; i <= gameModel.getNumberOfRows() - gameModel.getWinThreshold(); i++) {
-            int count = 0;
-            for (int j = 0; j <= gameModel.getNumberOfColumns() - gameModel.getWinThreshold(); j++) {
-                count = 0;
-                for (int k = 0; k < gameModel.getWinThreshold(); k++) {
-                    if (gameModel.getCellOwner(i + k, j + k) == currentPlayer) {
-                        count++;
-                    } else {
-                        break;
-                    }
-                }
-                if (count == gameModel.getWinThreshold()) {
-                    gameModel.setWinner(currentPlayer);
-                    return true;
-                }
+    private int lowestFreeRow(int col) {
+        for (int row = gameModel.getNumberOfRows() - 1; row >= 0; row--) {
+            if (gameModel.getCellOwner(row, col) == null) {
+                return row;
             }
         }
-        return false;
+        return -1;
     }
-    private boolean checkDiagonalWinTopRightToBottomLeft() {
-        OXOPlayer currentPlayer = gameModel.getPlayerByNumber(gameModel.getCurrentPlayerNumber());
-        for (int i = 0; i <= gameModel.getNumberOfRows() - gameModel.getWinThreshold(); i++) {
-            int count = 0;
-            for (int j = gameModel.getWinThreshold() - 1; j < gameModel.getNumberOfColumns(); j++) {
-                count = 0;
-                for (int k = 0; k < gameModel.getWinThreshold(); k++) {
-                    if (gameModel.getCellOwner(i + k, j - k) == currentPlayer) {
-                        count++;
-                    } else {
-                        break;
-                    }
-                }
-                if (count == gameModel.getWinThreshold()) {
-                    gameModel.setWinner(currentPlayer);
-                    return true;
-                }
-            }
+    public boolean checkForWin() {
+        int currentPlayerNumber = gameModel.getCurrentPlayerNumber();
+        if (winRule.isWinningPosition(gameModel, currentPlayerNumber)) {
+            gameModel.setWinner(gameModel.getPlayerByNumber(currentPlayerNumber));
+            return true;
         }
-        return false;
+        return checkDraw();
     }
     private boolean checkDraw() {
-        for (int row = 0; row < gameModel.getNumberOfRows(); row++) {
-            for (int col = 0; col < gameModel.getNumberOfColumns(); col++) {
-                if (gameModel.getCellOwner(row, col) == null) {
-                    return false; // There is still an unoccupied cell, the game is not a draw
-                }
-            }
+        if (gameModel.getNumberOfOccupiedCells() < gameModel.getNumberOfRows() * gameModel.getNumberOfColumns()) {
+            return false; // There is still an unoccupied cell, the game is not a draw
         }
         // All cells are occupied, the game is a draw
         gameModel.setGameDrawn();
@@ -0,0 +1,125 @@
+package edu.uob;
+
+public class OXOEvaluator {
+    //Returned (with a sign) when a player already owns a whole window
+    public static final long WIN_SCORE = Long.MAX_VALUE / 4;
+
+    private final OXOModel model;
+    private OXOLineTable table;
+    private int numberOfPlayers;
+    //pieces[w * numberOfPlayers + p] = how many cells of window w player p holds
+    private int[] pieces;
+    //openLines[p][k] = windows holding exactly k of p's pieces and nobody else's
+    private int[][] openLines;
+    private long[] weights;
+
+    public OXOEvaluator(OXOModel model) {
+        this.model = model;
+        rebuild();
+    }
+
+    //Recount everything from the board; needed after the board is resized or the threshold changes
+    public void rebuild() {
+        table = OXOLineTable.get(model.getNumberOfRows(), model.getNumberOfColumns(), model.getWinThreshold());
+        numberOfPlayers = model.getNumberOfPlayers();
+        pieces = new int[table.windows.length * numberOfPlayers];
+        openLines = new int[numberOfPlayers][table.winThreshold + 1];
+        weights = new long[table.winThreshold + 1];
+        //each extra piece in an open line is worth more than all the shorter lines on the board put together
+        long weight = 1;
+        long step = Math.max(2, table.windows.length + 1);
+        //capped so the sum over every length and player can never reach WIN_SCORE
+        long limit = WIN_SCORE / step / (table.winThreshold + 1) / Math.max(1, numberOfPlayers);
+        for (int k = 1; k <= table.winThreshold; k++) {
+            weights[k] = weight;
+            weight = Math.min(limit, weight * step);
+        }
+        for (int w = 0; w < table.windows.length; w++) {
+            for (int cell : table.windows[w]) {
+                OXOPlayer owner = model.getCellOwner(cell / table.cols, cell % table.cols);
+                if (owner != null) {
+                    pieces[w * numberOfPlayers + playerNumberOf(owner)]++;
+                }
+            }
+            addOpenLine(w, 1);
+        }
+    }
+
+    //The cell has to be empty: overwriting a piece would leave the old owner's counts behind
+    public void makeMove(int row, int col, int playerNumber) {
+        OXOPlayer owner = model.getCellOwner(row, col);
+        if (owner != null) {
+            throw new IllegalArgumentException("Cell " + row + "," + col + " is already owned by " + owner.getPlayingLetter());
+        }
+        model.setCellOwner(row, col, model.getPlayerByNumber(playerNumber));
+        update(row, col, playerNumber, 1);
+    }
+
+    public void unmakeMove(int row, int col) {
+        OXOPlayer owner = model.getCellOwner(row, col);
+        if (owner == null) {
+            return;
+        }
+        model.setCellOwner(row, col, null);
+        update(row, col, playerNumberOf(owner), -1);
+    }
+
+    public int getOpenLines(int playerNumber, int length) {
+        return openLines[playerNumber][length];
+    }
+
+    public boolean hasWon(int playerNumber) {
+        return openLines[playerNumber][table.winThreshold] > 0;
+    }
+
+    //Positive scores favour playerNumber; every other player counts as an opponent
+    public long evaluate(int playerNumber) {
+        long score = 0;
+        for (int p = 0; p < numberOfPlayers; p++) {
+            if (openLines[p][table.winThreshold] > 0) {
+                return p == playerNumber ? WIN_SCORE : -WIN_SCORE;
+            }
+            long playerScore = 0;
+            for (int k = 1; k < table.winThreshold; k++) {
+                playerScore += weights[k] * openLines[p][k];
+            }
+            score += p == playerNumber ? playerScore : -playerScore;
+        }
+        return score;
+    }
+
+    private void update(int row, int col, int playerNumber, int delta) {
+        for (int w : table.cellWindows[row * table.cols + col]) {
+            addOpenLine(w, -1);
+            pieces[w * numberOfPlayers + playerNumber] += delta;
+            addOpenLine(w, 1);
+        }
+    }
+
+    //Adds (or takes away) window w's contribution to the open line counts
+    private void addOpenLine(int w, int delta) {
+        int base = w * numberOfPlayers;
+        int owner = -1;
+        for (int p = 0; p < numberOfPlayers; p++) {
+            if (pieces[base + p] > 0) {
+                if (owner != -1) {
+                    //blocked: more than one player has a piece in it
+                    return;
+                }
+                owner = p;
+            }
+        }
+        if (owner != -1) {
+            openLines[owner][pieces[base + owner]] += delta;
+        }
+    }
+
+    private int playerNumberOf(OXOPlayer player) {
+        for (int p = 0; p < numberOfPlayers; p++) {
+            if (model.getPlayerByNumber(p) == player) {
+                return p;
+            }
+        }
+        throw new IllegalArgumentException("Player " + player.getPlayingLetter() + " is not in this game");
+    }
+}
@@ -0,0 +1,66 @@
+package edu.uob;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+
+//Synthetic flood: bot threads hammer an OXOCommandGate with junk while one well-behaved player
+//stays a little under the rate limit; prints the player's latency percentiles and the gate's counts.
+//  java edu.uob.OXOFloodGenerator [bots] [seconds] [commandsPerSecondPerClient]
+public class OXOFloodGenerator {
+    static final String[] JUNK = {"", "a", "zz", "a0", "abc123", "!1", "\u00c41", "j9", "a1b2", "1a"};
+
+    public static void main(String[] args) throws InterruptedException {
+        int bots = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        double rate = args.length > 2 ? Double.parseDouble(args[2]) : 50;
+
+        OXOModel model = new OXOModel(9, 9, 9);
+        model.addPlayer(new OXOPlayer('X'));
+        model.addPlayer(new OXOPlayer('O'));
+        OXOController controller = new OXOController(model);
+        OXOCommandGate gate = new OXOCommandGate(controller, rate, 10);
+        long deadline = System.nanoTime() + seconds * 1000000000L;
+
+        ArrayList<Thread> threads = new ArrayList<Thread>();
+        for (int b = 0; b < bots; b++) {
+            String botId = "bot" + b;
+            Random random = new Random(b);
+            Thread thread = new Thread(() -> {
+                while (System.nanoTime() < deadline) {
+                    gate.submit(botId, JUNK[random.nextInt(JUNK.length)]);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+
+        long pauseMillis = (long) (1250 / rate) + 1;
+        long[] latencies = new long[(int) (seconds * 1000 / pauseMillis) + 1];
+        int samples = 0;
+        Random random = new Random();
+        while (System.nanoTime() < deadline && samples < latencies.length) {
+            String move = "" + (char)('a' + random.nextInt(9)) + (char)('1' + random.nextInt(9));
+            long start = System.nanoTime();
+            gate.submit("player", move);
+            latencies[samples++] = System.nanoTime() - start;
+            synchronized (controller) {
+                if (model.getWinner() != null || model.isGameDrawn()) {
+                    controller.reset();
+                }
+            }
+            Thread.sleep(pauseMillis);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        long[] sorted = Arrays.copyOf(latencies, samples);
+        Arrays.sort(sorted);
+        System.out.println("player: " + samples + " moves, p50 " + sorted[samples / 2] / 1000 + " us, p99 "
+                + sorted[(int) (samples * 0.99)] / 1000 + " us, max " + sorted[samples - 1] / 1000 + " us");
+        for (OXOCommandGate.Verdict verdict : OXOCommandGate.Verdict.values()) {
+            System.out.println(verdict + ": " + gate.getCount(verdict) + " (player " + gate.getCount("player", verdict) + ")");
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package edu.uob;
 
+import java.io.IOException;
 import java.io.Serial;
 import java.awt.BorderLayout;
 import java.awt.Font;
@@ -16,6 +17,7 @@ import java.awt.event.MouseEvent;
 import java.awt.event.MouseListener;
 import java.awt.event.WindowEvent;
 import java.awt.event.WindowListener;
+import java.util.Arrays;
 
 public class OXOGame extends Frame implements WindowListener, ActionListener, MouseListener, KeyListener {
     @Serial private static final long serialVersionUID = 4493180057657097249L;
@@ -25,7 +27,14 @@ public class OXOGame extends Frame implements WindowListener, ActionListener, Mo
     TextField inputBox;
     OXOView view;
 
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
+        //Servers without a display: hand over to the console version before any window is made.
+        //Workers that care about startup time should launch OXOHeadlessGame directly, since
+        //loading this class already pulls in AWT
+        if (args.length > 0 && args[0].equals("--headless")) {
+            OXOHeadlessGame.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
         System.setProperty("awt.useSystemAAFontSettings", "on");
         System.setProperty("swing.aatext", "true");
         new OXOGame(250, 300);
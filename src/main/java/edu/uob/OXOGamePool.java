@@ -0,0 +1,144 @@
+package edu.uob;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+public class OXOGamePool {
+    //boards never grow past 9x9 (see OXOModel.addRow/addColumn)
+    static final int MAX_DIMENSION = 9;
+
+    //one idle stack per board size, indexed by (rows-1)*MAX_DIMENSION + (cols-1)
+    private final ArrayList<ArrayDeque<OXOController>> idle;
+    private final int maxIdlePerSize;
+    private final char[] playerLetters;
+    //games handed out and not yet released, by identity so the games' own state doesn't matter
+    private final Set<OXOController> checkedOut = Collections.newSetFromMap(new IdentityHashMap<OXOController, Boolean>());
+    private int idleCount;
+    private long createdCount;
+    private long reusedCount;
+    private long discardedCount;
+
+    public OXOGamePool(int maxIdlePerSize) {
+        this(maxIdlePerSize, 'X', 'O');
+    }
+
+    public OXOGamePool(int maxIdlePerSize, char... playerLetters) {
+        if (maxIdlePerSize < 0) {
+            throw new IllegalArgumentException("Pool capacity cannot be negative");
+        }
+        if (playerLetters.length == 0) {
+            throw new IllegalArgumentException("At least one player is needed");
+        }
+        this.maxIdlePerSize = maxIdlePerSize;
+        this.playerLetters = playerLetters.clone();
+        idle = new ArrayList<ArrayDeque<OXOController>>();
+        for (int i = 0; i < MAX_DIMENSION * MAX_DIMENSION; i++) {
+            idle.add(new ArrayDeque<OXOController>(maxIdlePerSize));
+        }
+    }
+
+    //Build games up front so the first acquires don't allocate
+    public synchronized void preallocate(int rows, int cols, int count) {
+        checkDimensions(rows, cols);
+        ArrayDeque<OXOController> stack = idle.get(slot(rows, cols));
+        for (int i = 0; i < count && stack.size() < maxIdlePerSize; i++) {
+            stack.push(newGame(rows, cols, 3));
+            idleCount++;
+        }
+    }
+
+    public synchronized OXOController acquire(int rows, int cols, int winThreshold) {
+        checkDimensions(rows, cols);
+        OXOController controller = idle.get(slot(rows, cols)).poll();
+        if (controller == null) {
+            controller = newGame(rows, cols, winThreshold);
+        } else {
+            idleCount--;
+            reusedCount++;
+            controller.gameModel.setWinThreshold(winThreshold);
+        }
+        checkedOut.add(controller);
+        return controller;
+    }
+
+    public synchronized void release(OXOController controller) {
+        if (!checkedOut.remove(controller)) {
+            throw new IllegalArgumentException("Game was not acquired from this pool, or has already been released");
+        }
+        OXOModel model = controller.gameModel;
+        int rows = model.getNumberOfRows();
+        int cols = model.getNumberOfColumns();
+        //the board may have been resized while in play, file it under its current size
+        if (rows > MAX_DIMENSION || cols > MAX_DIMENSION
+                || model.getNumberOfPlayers() != playerLetters.length) {
+            discardedCount++;
+            return;
+        }
+        ArrayDeque<OXOController> stack = idle.get(slot(rows, cols));
+        if (stack.size() >= maxIdlePerSize) {
+            discardedCount++;
+            return;
+        }
+        controller.reset();
+        //variant rules belong to the game that set them; the next one starts as plain OXO
+        if (controller.getWinRule().getClass() != OXOWinRule.StraightLine.class) {
+            controller.setWinRule(new OXOWinRule.StraightLine());
+        }
+        controller.setGravity(false);
+        for (int i = 0; i < playerLetters.length; i++) {
+            model.getPlayerByNumber(i).setPlayingLetter(playerLetters[i]);
+        }
+        stack.push(controller);
+        idleCount++;
+    }
+
+    public synchronized int getIdleCount() {
+        return idleCount;
+    }
+
+    public synchronized int getIdleCount(int rows, int cols) {
+        checkDimensions(rows, cols);
+        return idle.get(slot(rows, cols)).size();
+    }
+
+    public synchronized int getInUseCount() {
+        return checkedOut.size();
+    }
+
+    public synchronized long getCreatedCount() {
+        return createdCount;
+    }
+
+    public synchronized long getReusedCount() {
+        return reusedCount;
+    }
+
+    public synchronized long getDiscardedCount() {
+        return discardedCount;
+    }
+
+    public int getMaxIdlePerSize() {
+        return maxIdlePerSize;
+    }
+
+    private OXOController newGame(int rows, int cols, int winThreshold) {
+        OXOModel model = new OXOModel(rows, cols, winThreshold);
+        for (char letter : playerLetters) {
+            model.addPlayer(new OXOPlayer(letter));
+        }
+        createdCount++;
+        return new OXOController(model);
+    }
+
+    private static int slot(int rows, int cols) {
+        return (rows - 1) * MAX_DIMENSION + (cols - 1);
+    }
+
+    private static void checkDimensions(int rows, int cols) {
+        if (rows < 1 || rows > MAX_DIMENSION || cols < 1 || cols > MAX_DIMENSION) {
+            throw new IllegalArgumentException("Board size " + rows + "x" + cols + " is not supported");
+        }
+    }
+}
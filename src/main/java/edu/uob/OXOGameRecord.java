@@ -0,0 +1,105 @@
+package edu.uob;
+
+public class OXOGameRecord {
+    private final int rows;
+    private final int cols;
+    private final int winThreshold;
+    private final char[] playerLetters;
+    //moves in the order they were played, as cell indices (row * cols + col)
+    private final int[] moves;
+
+    public OXOGameRecord(int rows, int cols, int winThreshold, char[] playerLetters, int[] moves) {
+        //same limits as a live game (see OXOModel.addRow/addColumn)
+        if (rows < 1 || rows > OXOGamePool.MAX_DIMENSION || cols < 1 || cols > OXOGamePool.MAX_DIMENSION) {
+            throw new IllegalArgumentException("Board size " + rows + "x" + cols + " is not supported");
+        }
+        if (playerLetters.length == 0) {
+            throw new IllegalArgumentException("At least one player is needed");
+        }
+        //a threshold of 0 would hand the first mover a win, and line tables can't be built for negative ones
+        if (winThreshold < 1) {
+            throw new IllegalArgumentException("Win threshold " + winThreshold + " is not supported");
+        }
+        this.rows = rows;
+        this.cols = cols;
+        this.winThreshold = winThreshold;
+        this.playerLetters = playerLetters.clone();
+        this.moves = moves.clone();
+        for (int move : moves) {
+            if (move < 0 || move >= rows * cols) {
+                throw new IllegalArgumentException("Cell " + move + " is not on a " + rows + "x" + cols + " board");
+            }
+        }
+    }
+
+    //Convenience for turning the old "a1"-style move lists into a record
+    public static OXOGameRecord fromCommands(int rows, int cols, int winThreshold, char[] playerLetters, String... commands) {
+        int[] moves = new int[commands.length];
+        for (int i = 0; i < commands.length; i++) {
+            String command = commands[i].toLowerCase();
+            if (command.length() != 2) {
+                throw new IllegalArgumentException("Identifier " + commands[i] + " is invalid");
+            }
+            int row = command.charAt(0) - 'a';
+            int col = command.charAt(1) - '1';
+            if (row < 0 || row >= rows || col < 0 || col >= cols) {
+                throw new IllegalArgumentException("Identifier " + commands[i] + " is off the board");
+            }
+            moves[i] = row * cols + col;
+        }
+        return new OXOGameRecord(rows, cols, winThreshold, playerLetters, moves);
+    }
+
+    public int getNumberOfRows() {
+        return rows;
+    }
+
+    public int getNumberOfColumns() {
+        return cols;
+    }
+
+    public int getWinThreshold() {
+        return winThreshold;
+    }
+
+    public int getNumberOfPlayers() {
+        return playerLetters.length;
+    }
+
+    public char getPlayerLetter(int playerNumber) {
+        return playerLetters[playerNumber];
+    }
+
+    public int getNumberOfMoves() {
+        return moves.length;
+    }
+
+    public int getMove(int moveNumber) {
+        return moves[moveNumber];
+    }
+
+    //Play the game back with the controller's rules: moves are placed straight onto the board (they
+    //were range-checked on the way in) and the controller works out the winner/draw state as normal
+    public OXOModel replay() throws OXOMoveException {
+        OXOModel model = new OXOModel(rows, cols, winThreshold);
+        for (char letter : playerLetters) {
+            model.addPlayer(new OXOPlayer(letter));
+        }
+        OXOController controller = new OXOController(model);
+        boolean gameOver = false;
+        for (int move : moves) {
+            int row = move / cols;
+            int col = move % cols;
+            //a finished game refuses every further move, as handleIncomingCommand does
+            if (gameOver || model.getCellOwner(row, col) != null) {
+                throw new OXOMoveException.CellAlreadyTakenException(row, col);
+            }
+            model.setCellOwner(row, col, model.getPlayerByNumber(model.getCurrentPlayerNumber()));
+            gameOver = controller.checkForWin();
+            if (!gameOver) {
+                model.setCurrentPlayerNumber((model.getCurrentPlayerNumber() + 1) % model.getNumberOfPlayers());
+            }
+        }
+        return model;
+    }
+}
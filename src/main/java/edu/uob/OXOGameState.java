@@ -0,0 +1,62 @@
+package edu.uob;
+
+//Single-line text form of a game in progress, used to move games between workers.
+//  rows,cols,threshold,currentPlayer,winner,drawn,letters,cells
+//winner is a player number or -1, letters has one character per player and cells holds one
+//character per cell, row by row: '.' when empty, otherwise '0' + the owner's player number
+public class OXOGameState {
+
+    private OXOGameState() {
+    }
+
+    public static String save(OXOModel model) {
+        StringBuilder letters = new StringBuilder();
+        for (int p = 0; p < model.getNumberOfPlayers(); p++) {
+            letters.append(model.getPlayerByNumber(p).getPlayingLetter());
+        }
+        StringBuilder cells = new StringBuilder();
+        for (int row = 0; row < model.getNumberOfRows(); row++) {
+            for (int col = 0; col < model.getNumberOfColumns(); col++) {
+                OXOPlayer owner = model.getCellOwner(row, col);
+                cells.append(owner == null ? '.' : (char)('0' + OXOPositionHash.playerNumberOf(model, owner)));
+            }
+        }
+        int winner = model.getWinner() == null ? -1 : OXOPositionHash.playerNumberOf(model, model.getWinner());
+        return model.getNumberOfRows() + "," + model.getNumberOfColumns() + "," + model.getWinThreshold() + ","
+                + model.getCurrentPlayerNumber() + "," + winner + "," + (model.isGameDrawn() ? 1 : 0) + ","
+                + letters + "," + cells;
+    }
+
+    public static OXOModel load(String state) {
+        String[] fields = state.split(",", 8);
+        if (fields.length != 8) {
+            throw new IllegalArgumentException("Game state has " + fields.length + " fields instead of 8");
+        }
+        int rows = Integer.parseInt(fields[0]);
+        int cols = Integer.parseInt(fields[1]);
+        String letters = fields[6];
+        String cells = fields[7];
+        if (cells.length() != rows * cols) {
+            throw new IllegalArgumentException("Game state has " + cells.length() + " cells for a " + rows + "x" + cols + " board");
+        }
+        OXOModel model = new OXOModel(rows, cols, Integer.parseInt(fields[2]));
+        for (int p = 0; p < letters.length(); p++) {
+            model.addPlayer(new OXOPlayer(letters.charAt(p)));
+        }
+        for (int i = 0; i < cells.length(); i++) {
+            char cell = cells.charAt(i);
+            if (cell != '.') {
+                model.setCellOwner(i / cols, i % cols, model.getPlayerByNumber(cell - '0'));
+            }
+        }
+        model.setCurrentPlayerNumber(Integer.parseInt(fields[3]));
+        int winner = Integer.parseInt(fields[4]);
+        if (winner >= 0) {
+            model.setWinner(model.getPlayerByNumber(winner));
+        }
+        if (fields[5].equals("1")) {
+            model.setGameDrawn();
+        }
+        return model;
+    }
+}
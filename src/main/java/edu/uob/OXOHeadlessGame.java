@@ -0,0 +1,71 @@
+package edu.uob;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+
+//Entry point for game workers: plays one game over stdin/stdout and never touches AWT or Swing,
+//so it starts quickly and runs on machines without a display. One reply line per command:
+//  ok | win <letter> | draw | error <message>
+//Commands are moves ("a1"), reset, or quit. With --once it just plays b2 and exits, which is
+//the run the cds profile records its class list from.
+public class OXOHeadlessGame {
+    private final OXOController controller;
+    private final PrintStream output;
+
+    public OXOHeadlessGame(OXOModel model, PrintStream output) {
+        controller = new OXOController(model);
+        this.output = output;
+    }
+
+    public static void main(String[] args) throws IOException {
+        OXOModel model = new OXOModel(3, 3, 3);
+        model.addPlayer(new OXOPlayer('X'));
+        model.addPlayer(new OXOPlayer('O'));
+        OXOHeadlessGame game = new OXOHeadlessGame(model, System.out);
+        for (String arg : args) {
+            if (arg.equals("--once")) {
+                game.handleLine("b2");
+                return;
+            }
+        }
+        BufferedReader input = new BufferedReader(new InputStreamReader(System.in));
+        String line;
+        while ((line = input.readLine()) != null) {
+            if (!game.handleLine(line.trim())) {
+                return;
+            }
+        }
+    }
+
+    //Returns false once the client has asked to quit
+    public boolean handleLine(String line) {
+        if (line.equals("quit")) {
+            return false;
+        }
+        if (line.equals("reset")) {
+            controller.reset();
+            output.println("ok");
+            return true;
+        }
+        output.println(respond(controller, line));
+        return true;
+    }
+
+    //Plays one move and describes the outcome in the reply format above; also used by OXOWorker
+    static String respond(OXOController controller, String command) {
+        try {
+            controller.handleIncomingCommand(command);
+            OXOModel model = controller.gameModel;
+            if (model.getWinner() != null) {
+                return "win " + model.getWinner().getPlayingLetter();
+            } else if (model.isGameDrawn()) {
+                return "draw";
+            }
+            return "ok";
+        } catch (OXOMoveException exception) {
+            return "error " + exception.getMessage();
+        }
+    }
+}
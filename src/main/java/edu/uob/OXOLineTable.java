@@ -0,0 +1,233 @@
+package edu.uob;
+
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+
+//Every winning window of one board shape, compiled once and shared by all games, win rules and
+//evaluators that use that shape. Cells are numbered row * cols + col throughout.
+public class OXOLineTable {
+    //straight and wrapped tables by (rows, cols, wrap, threshold) packed into a long; shapes by name and offsets
+    private static final ConcurrentHashMap<Long, OXOLineTable> STRAIGHT = new ConcurrentHashMap<Long, OXOLineTable>();
+    private static final ConcurrentHashMap<String, OXOLineTable> SHAPES = new ConcurrentHashMap<String, OXOLineTable>();
+
+    //Directions as {rowStep, colStep}: horizontal, vertical, top-left to bottom-right, top-right to bottom-left
+    static final int[][] DIRECTIONS = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+
+    final int rows;
+    final int cols;
+    final int winThreshold;
+    //longs needed for a bitset of the whole board (see OXOModel.getOccupancy)
+    final int words;
+    //windows[w] holds the cells of window w
+    final int[][] windows;
+    //cellWindows[cell] holds the index of every window that passes through that cell
+    final int[][] cellWindows;
+    //masks[w * words .. w * words + words - 1] is window w as a bitset
+    final long[] masks;
+    //the cell just before / after each straight window along its direction, or -1 off the board
+    final int[] beforeCells;
+    final int[] afterCells;
+
+    private OXOLineTable(int rows, int cols, int winThreshold, ArrayList<int[]> found, ArrayList<int[]> ends) {
+        this.rows = rows;
+        this.cols = cols;
+        this.winThreshold = winThreshold;
+        words = (rows * cols + 63) >>> 6;
+        windows = found.toArray(new int[0][]);
+        masks = new long[windows.length * words];
+        beforeCells = new int[windows.length];
+        afterCells = new int[windows.length];
+        for (int w = 0; w < windows.length; w++) {
+            for (int cell : windows[w]) {
+                masks[w * words + (cell >>> 6)] |= 1L << cell;
+            }
+            beforeCells[w] = ends.get(w)[0];
+            afterCells[w] = ends.get(w)[1];
+        }
+
+        int[] perCell = new int[rows * cols];
+        for (int[] window : windows) {
+            for (int cell : window) {
+                perCell[cell]++;
+            }
+        }
+        cellWindows = new int[rows * cols][];
+        for (int cell = 0; cell < perCell.length; cell++) {
+            cellWindows[cell] = new int[perCell[cell]];
+            perCell[cell] = 0;
+        }
+        for (int w = 0; w < windows.length; w++) {
+            for (int cell : windows[w]) {
+                cellWindows[cell][perCell[cell]++] = w;
+            }
+        }
+    }
+
+    //Straight lines of winThreshold cells in every direction - the standard OXO windows
+    public static OXOLineTable get(int rows, int cols, int winThreshold) {
+        return straight(rows, cols, winThreshold, false);
+    }
+
+    //Straight lines that run off one edge and carry on from the opposite one
+    public static OXOLineTable wrapped(int rows, int cols, int winThreshold) {
+        return straight(rows, cols, winThreshold, true);
+    }
+
+    //Looked up by a packed long and filled in without a lambda: this runs on a game's first move,
+    //where string concatenation and lambdas would each cost an invokedynamic bootstrap
+    private static OXOLineTable straight(int rows, int cols, int winThreshold, boolean wrap) {
+        Long key = Long.valueOf(((long) rows << 56) | ((long) cols << 48) | (wrap ? 1L << 32 : 0L) | (winThreshold & 0xFFFFFFFFL));
+        OXOLineTable table = STRAIGHT.get(key);
+        if (table == null) {
+            table = compileStraight(rows, cols, winThreshold, wrap);
+            OXOLineTable raced = STRAIGHT.putIfAbsent(key, table);
+            if (raced != null) {
+                table = raced;
+            }
+        }
+        return table;
+    }
+
+    //Every placement of a shape given as {row, col} offsets from its top-left corner
+    static OXOLineTable shape(String name, int[] offsets, int rows, int cols) {
+        StringBuilder key = new StringBuilder(name).append(':').append(rows).append('x').append(cols);
+        for (int offset : offsets) {
+            key.append(',').append(offset);
+        }
+        String shapeKey = key.toString();
+        OXOLineTable table = SHAPES.get(shapeKey);
+        if (table == null) {
+            table = compileShape(offsets, rows, cols);
+            OXOLineTable raced = SHAPES.putIfAbsent(shapeKey, table);
+            if (raced != null) {
+                table = raced;
+            }
+        }
+        return table;
+    }
+
+    private static OXOLineTable compileShape(int[] offsets, int rows, int cols) {
+        ArrayList<int[]> found = new ArrayList<int[]>();
+        ArrayList<int[]> ends = new ArrayList<int[]>();
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                int[] window = new int[offsets.length / 2];
+                boolean fits = true;
+                for (int i = 0; i < offsets.length && fits; i += 2) {
+                    int r = row + offsets[i];
+                    int c = col + offsets[i + 1];
+                    fits = r < rows && c < cols;
+                    window[i / 2] = r * cols + c;
+                }
+                if (fits) {
+                    found.add(window);
+                    ends.add(new int[] {-1, -1});
+                }
+            }
+        }
+        return new OXOLineTable(rows, cols, offsets.length / 2, found, ends);
+    }
+
+    private static OXOLineTable compileStraight(int rows, int cols, int length, boolean wrap) {
+        ArrayList<int[]> found = new ArrayList<int[]>();
+        ArrayList<int[]> ends = new ArrayList<int[]>();
+        for (int[] direction : DIRECTIONS) {
+            int rowStep = direction[0];
+            int colStep = direction[1];
+            //On a torus a line may not come back round onto its own starting cell
+            if (wrap && ((rowStep != 0 && length > rows) || (colStep != 0 && length > cols))) {
+                continue;
+            }
+            for (int row = 0; row < rows; row++) {
+                for (int col = 0; col < cols; col++) {
+                    int[] window = new int[length];
+                    int[] end = new int[2];
+                    boolean fits = true;
+                    for (int k = -1; k <= length && fits; k++) {
+                        int r = row + rowStep * k;
+                        int c = col + colStep * k;
+                        boolean inside = r >= 0 && r < rows && c >= 0 && c < cols;
+                        if (wrap) {
+                            r = Math.floorMod(r, rows);
+                            c = Math.floorMod(c, cols);
+                            inside = true;
+                        }
+                        int cell = inside ? r * cols + c : -1;
+                        if (k == -1) {
+                            end[0] = cell;
+                        } else if (k == length) {
+                            end[1] = cell;
+                        } else {
+                            fits = inside;
+                            window[k] = cell;
+                        }
+                    }
+                    if (fits) {
+                        found.add(window);
+                        ends.add(end);
+                    }
+                }
+            }
+        }
+        return new OXOLineTable(rows, cols, length, found, ends);
+    }
+
+    //Index of the first window entirely inside the bitset, starting from window `from`, or -1
+    int findFilledWindow(long[] occupied, int from) {
+        if (words == 1) {
+            long bits = occupied[0];
+            for (int w = from; w < windows.length; w++) {
+                long mask = masks[w];
+                if ((bits & mask) == mask) {
+                    return w;
+                }
+            }
+            return -1;
+        }
+        //boards up to 9x9 never need more than two words, so that case gets its own loop too
+        if (words == 2) {
+            long low = occupied[0];
+            long high = occupied[1];
+            for (int w = from; w < windows.length; w++) {
+                long lowMask = masks[w * 2];
+                long highMask = masks[w * 2 + 1];
+                if ((low & lowMask) == lowMask && (high & highMask) == highMask) {
+                    return w;
+                }
+            }
+            return -1;
+        }
+        for (int w = from; w < windows.length; w++) {
+            int base = w * words;
+            boolean filled = true;
+            for (int i = 0; i < words && filled; i++) {
+                long mask = masks[base + i];
+                filled = (occupied[i] & mask) == mask;
+            }
+            if (filled) {
+                return w;
+            }
+        }
+        return -1;
+    }
+
+    static boolean isSet(long[] occupied, int cell) {
+        return cell >= 0 && (occupied[cell >>> 6] & (1L << cell)) != 0;
+    }
+
+    public static int cachedTableCount() {
+        return STRAIGHT.size() + SHAPES.size();
+    }
+
+    public int getNumberOfWindows() {
+        return windows.length;
+    }
+
+    public int[] getWindow(int window) {
+        return windows[window].clone();
+    }
+
+    public int[] getWindowsThroughCell(int row, int col) {
+        return cellWindows[row * cols + col].clone();
+    }
+}
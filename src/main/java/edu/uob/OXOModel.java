@@ -1,5 +1,6 @@
 package edu.uob;
 import java.util.ArrayList;
+import java.util.Arrays;
 public class OXOModel {
     //outer arraylist represents rows, inner columns
     private ArrayList<ArrayList<OXOPlayer>> cells;
@@ -8,6 +9,10 @@ public class OXOModel {
     private OXOPlayer winner;
     private boolean gameDrawn;
     private int winThreshold;
+    //one bitset per player of the cells they own (bit row * cols + col), kept in step with cells so
+    //win rules can test whole lines with a few mask operations
+    private ArrayList<long[]> occupancy;
+    private int occupiedCells;
 
     public OXOModel(int numberOfRows, int numberOfColumns, int winThresh) {
         winThreshold = winThresh;
@@ -21,6 +26,7 @@ public class OXOModel {
             cells.add(row);
         }
         players = new ArrayList<OXOPlayer>();
+        occupancy = new ArrayList<long[]>();
     }
 
 
@@ -30,6 +36,8 @@ public class OXOModel {
 
     public void addPlayer(OXOPlayer player) {
         players.add(player);
+        occupancy.add(new long[occupancyWords()]);
+        rebuildOccupancy();
     }
 
     public OXOPlayer getPlayerByNumber(int number) {
@@ -68,7 +76,58 @@ public class OXOModel {
     }
 
     public void setCellOwner(int rowNumber, int colNumber, OXOPlayer player) {
-        cells.get(rowNumber).set(colNumber,player);
+        OXOPlayer previous = cells.get(rowNumber).set(colNumber,player);
+        int cell = rowNumber * getNumberOfColumns() + colNumber;
+        if (previous != null) {
+            occupiedCells--;
+            int owner = players.indexOf(previous);
+            if (owner >= 0) {
+                occupancy.get(owner)[cell >>> 6] &= ~(1L << cell);
+            }
+        }
+        if (player != null) {
+            occupiedCells++;
+            int owner = players.indexOf(player);
+            if (owner >= 0) {
+                occupancy.get(owner)[cell >>> 6] |= 1L << cell;
+            }
+        }
+    }
+
+    //The player's cells as a bitset (bit row * cols + col); shared, not a copy, so don't modify it
+    long[] getOccupancy(int playerNumber) {
+        return occupancy.get(playerNumber);
+    }
+
+    public int getNumberOfOccupiedCells() {
+        return occupiedCells;
+    }
+
+    private int occupancyWords() {
+        return (getNumberOfRows() * getNumberOfColumns() + 63) >>> 6;
+    }
+
+    //Cell numbering depends on the board size, so resizing redoes the bitsets from scratch
+    private void rebuildOccupancy() {
+        int words = occupancyWords();
+        for (int p = 0; p < occupancy.size(); p++) {
+            occupancy.set(p, new long[words]);
+        }
+        occupiedCells = 0;
+        int cols = getNumberOfColumns();
+        for (int row = 0; row < getNumberOfRows(); row++) {
+            for (int col = 0; col < cols; col++) {
+                OXOPlayer owner = getCellOwner(row, col);
+                if (owner != null) {
+                    occupiedCells++;
+                    int p = players.indexOf(owner);
+                    if (p >= 0) {
+                        int cell = row * cols + col;
+                        occupancy.get(p)[cell >>> 6] |= 1L << cell;
+                    }
+                }
+            }
+        }
     }
 
     public void setWinThreshold(int winThresh) {
@@ -103,6 +162,7 @@ public class OXOModel {
         }
         gameDrawn = false;
         cells.add(cells.size(), row);
+        rebuildOccupancy();
     }
     }
 
@@ -112,6 +172,7 @@ public class OXOModel {
             cells.get(j).add(null);
         }
         gameDrawn = false;
+        rebuildOccupancy();
     }
     }
     public void removeRow() {
@@ -122,6 +183,7 @@ public class OXOModel {
         }
         if (getNumberOfRows() > 1) {
             cells.remove(cells.size() - 1);
+            rebuildOccupancy();
             winner = null;
             gameDrawn = false;
             if (currentPlayerNumber > 0) {
@@ -140,6 +202,7 @@ public class OXOModel {
             for (int i = 0; i < getNumberOfRows(); i++) {
                 cells.get(i).remove(cells.get(i).size() - 1);
             }
+            rebuildOccupancy();
             winner = null;
             gameDrawn = false;
             if (currentPlayerNumber > 0) {
@@ -153,6 +216,10 @@ public class OXOModel {
                 cells.get(row).set(col, null);
             }
         }
+        for (long[] bits : occupancy) {
+            Arrays.fill(bits, 0L);
+        }
+        occupiedCells = 0;
     }
 }
 
@@ -0,0 +1,99 @@
+package edu.uob;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+//Read-only view of a book written by OXOOpeningBookBuilder. The file is memory-mapped and
+//searched in place, so opening it costs next to nothing and lookups don't allocate.
+//Layout: int MAGIC, int VERSION, int entryCount, then entries sorted by (signed) hash:
+//  long hash, short bestMove, short depth, int score, int nodes
+public class OXOOpeningBook implements Closeable {
+    static final int MAGIC = 0x4F584F42; // "OXOB"
+    static final int VERSION = 1;
+    static final int HEADER_LENGTH = 12;
+    static final int ENTRY_LENGTH = 20;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer entries;
+    private final int entryCount;
+
+    public OXOOpeningBook(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            entries = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (channel.size() < HEADER_LENGTH || entries.getInt(0) != MAGIC) {
+                throw new IOException(file + " is not an opening book");
+            }
+            if (entries.getInt(4) != VERSION) {
+                throw new IOException("Unsupported opening book version " + entries.getInt(4));
+            }
+            entryCount = entries.getInt(8);
+            if (channel.size() != HEADER_LENGTH + (long) entryCount * ENTRY_LENGTH) {
+                throw new IOException(file + " is truncated");
+            }
+        } catch (IOException exception) {
+            channel.close();
+            throw exception;
+        }
+    }
+
+    public int getNumberOfEntries() {
+        return entryCount;
+    }
+
+    //Index of the position's entry, hashing and searching once; -1 if the position isn't in the book.
+    //Pass the index to the getters below to read the stored fields
+    public int findEntry(OXOModel model) {
+        return find(OXOPositionHash.hash(model));
+    }
+
+    //Best reply as a cell index (row * cols + col), or -1 if the position isn't in the book
+    public int lookup(OXOModel model) {
+        return getBestMove(findEntry(model));
+    }
+
+    public int getBestMove(int entry) {
+        return entry < 0 ? -1 : entries.getShort(offset(entry) + 8);
+    }
+
+    public int getSearchDepth(int entry) {
+        return entry < 0 ? -1 : entries.getShort(offset(entry) + 10);
+    }
+
+    public int getScore(int entry) {
+        return entry < 0 ? 0 : entries.getInt(offset(entry) + 12);
+    }
+
+    public int getNodes(int entry) {
+        return entry < 0 ? 0 : entries.getInt(offset(entry) + 16);
+    }
+
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private int find(long hash) {
+        int low = 0;
+        int high = entryCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long key = entries.getLong(offset(mid));
+            if (key < hash) {
+                low = mid + 1;
+            } else if (key > hash) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    private static int offset(int entry) {
+        return HEADER_LENGTH + entry * ENTRY_LENGTH;
+    }
+}
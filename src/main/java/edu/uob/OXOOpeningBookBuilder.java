@@ -0,0 +1,123 @@
+package edu.uob;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.HashMap;
+
+//Offline tool: searches every position in the first few plies of a configuration and writes the
+//best replies to a book that OXOOpeningBook can map at startup.
+//  java edu.uob.OXOOpeningBookBuilder <output> <plies> <depth> [rowsxcols:threshold ...]
+public class OXOOpeningBookBuilder {
+    //entry = {bestMove, depth, score, nodes}, keyed by position hash
+    private final HashMap<Long, int[]> entries = new HashMap<Long, int[]>();
+    private final int searchDepth;
+
+    public OXOOpeningBookBuilder(int searchDepth) {
+        this.searchDepth = searchDepth;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.out.println("Usage: OXOOpeningBookBuilder <output> <plies> <depth> [rowsxcols:threshold ...]");
+            return;
+        }
+        Path output = Paths.get(args[0]);
+        int plies = Integer.parseInt(args[1]);
+        OXOOpeningBookBuilder builder = new OXOOpeningBookBuilder(Integer.parseInt(args[2]));
+        String[] configurations = args.length > 3
+                ? Arrays.copyOfRange(args, 3, args.length)
+                : new String[] {"3x3:3", "5x5:4", "9x9:5"};
+        for (String configuration : configurations) {
+            String[] parts = configuration.split("[x:]");
+            long start = System.nanoTime();
+            int added = builder.addConfiguration(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]), Integer.parseInt(parts[2]), plies);
+            System.out.println(configuration + ": " + added + " positions in " + (System.nanoTime() - start) / 1000000 + " ms");
+        }
+        builder.write(output);
+        System.out.println("Wrote " + builder.getNumberOfEntries() + " entries to " + output);
+    }
+
+    //Searches every reachable position with fewer than `plies` pieces on the board; returns how many were added
+    public int addConfiguration(int rows, int cols, int winThreshold, int plies) {
+        OXOModel model = new OXOModel(rows, cols, winThreshold);
+        model.addPlayer(new OXOPlayer('X'));
+        model.addPlayer(new OXOPlayer('O'));
+        int before = entries.size();
+        explore(model, 0, plies);
+        return entries.size() - before;
+    }
+
+    public int getNumberOfEntries() {
+        return entries.size();
+    }
+
+    public void write(Path file) throws IOException {
+        long[] keys = new long[entries.size()];
+        int i = 0;
+        for (long key : entries.keySet()) {
+            keys[i++] = key;
+        }
+        Arrays.sort(keys);
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file.toFile())))) {
+            output.writeInt(OXOOpeningBook.MAGIC);
+            output.writeInt(OXOOpeningBook.VERSION);
+            output.writeInt(keys.length);
+            for (long key : keys) {
+                int[] entry = entries.get(key);
+                output.writeLong(key);
+                output.writeShort(entry[0]);
+                output.writeShort(entry[1]);
+                output.writeInt(entry[2]);
+                output.writeInt(entry[3]);
+            }
+        }
+    }
+
+    private void explore(OXOModel model, int ply, int plies) {
+        if (ply >= plies) {
+            return;
+        }
+        long hash = OXOPositionHash.hash(model);
+        if (entries.containsKey(hash)) {
+            return; // reached by a different move order
+        }
+        OXOEvaluator position = new OXOEvaluator(model);
+        if (position.hasWon(0) || position.hasWon(1)) {
+            return;
+        }
+        model.setCurrentPlayerNumber(ply % 2);
+        OXOSearch search = new OXOSearch(model);
+        int best = search.bestMove(searchDepth);
+        if (best == -1) {
+            return; // board is full
+        }
+        entries.put(hash, new int[] {best, searchDepth, toStoredScore(search.getLastScore()), (int) Math.min(Integer.MAX_VALUE, search.getNodes())});
+        for (int row = 0; row < model.getNumberOfRows(); row++) {
+            for (int col = 0; col < model.getNumberOfColumns(); col++) {
+                if (model.getCellOwner(row, col) == null) {
+                    model.setCellOwner(row, col, model.getPlayerByNumber(ply % 2));
+                    explore(model, ply + 1, plies);
+                    model.setCellOwner(row, col, null);
+                }
+            }
+        }
+        model.setCurrentPlayerNumber(ply % 2);
+    }
+
+    //Forced results keep their distance to the end; everything else is squeezed into the int range below them
+    static int toStoredScore(long score) {
+        if (OXOSearch.isForcedWin(score)) {
+            return Integer.MAX_VALUE - OXOSearch.pliesToResult(score);
+        }
+        if (OXOSearch.isForcedLoss(score)) {
+            return -Integer.MAX_VALUE + OXOSearch.pliesToResult(score);
+        }
+        long limit = Integer.MAX_VALUE - 10000;
+        return (int) Math.max(-limit, Math.min(limit, score));
+    }
+}
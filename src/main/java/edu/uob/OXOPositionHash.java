@@ -0,0 +1,140 @@
+package edu.uob;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+
+//Zobrist hashing of board positions. The keys come from a fixed seed so hashes are stable
+//between runs, which is what lets them be stored in files (e.g. the opening book)
+public class OXOPositionHash {
+    //configuration (see configurationOf) -> keys. Looked up by a packed long rather than a string so
+    //hashing a board allocates nothing; the last configuration used skips the map altogether
+    private static final ConcurrentHashMap<Long, long[]> KEYS = new ConcurrentHashMap<Long, long[]>();
+    private static volatile KeySet lastKeys;
+
+    private static final class KeySet {
+        final long configuration;
+        final long[] keys;
+
+        KeySet(long configuration, long[] keys) {
+            this.configuration = configuration;
+            this.keys = keys;
+        }
+    }
+
+    private OXOPositionHash() {
+    }
+
+    //keys[0] identifies the configuration itself, keys[1 + cell * players + player] one piece
+    static long[] keysFor(int rows, int cols, int winThreshold, int numberOfPlayers) {
+        long configuration = configurationOf(rows, cols, winThreshold, numberOfPlayers);
+        KeySet last = lastKeys;
+        if (last != null && last.configuration == configuration) {
+            return last.keys;
+        }
+        long[] keys = KEYS.computeIfAbsent(configuration, key -> {
+            //the seed is unchanged from the string-keyed version so hashes already stored in books still match
+            String name = rows + "x" + cols + ":" + winThreshold + ":" + numberOfPlayers;
+            SplittableRandom random = new SplittableRandom(0x0A0A0A0AL ^ name.hashCode());
+            long[] created = new long[1 + rows * cols * numberOfPlayers];
+            for (int i = 0; i < created.length; i++) {
+                created[i] = random.nextLong();
+            }
+            return created;
+        });
+        lastKeys = new KeySet(configuration, keys);
+        return keys;
+    }
+
+    //Boards are at most 9x9, so rows and columns fit in a byte each
+    private static long configurationOf(int rows, int cols, int winThreshold, int numberOfPlayers) {
+        return ((long) rows << 56) | ((long) cols << 48) | ((long) (numberOfPlayers & 0xFFFF) << 32) | (winThreshold & 0xFFFFFFFFL);
+    }
+
+    public static long hash(OXOModel model) {
+        int rows = model.getNumberOfRows();
+        int cols = model.getNumberOfColumns();
+        int numberOfPlayers = model.getNumberOfPlayers();
+        long[] keys = keysFor(rows, cols, model.getWinThreshold(), numberOfPlayers);
+        long hash = keys[0];
+        //walk each player's occupancy bitset rather than asking every cell who owns it
+        for (int p = 0; p < numberOfPlayers; p++) {
+            long[] occupied = model.getOccupancy(p);
+            for (int word = 0; word < occupied.length; word++) {
+                long bits = occupied[word];
+                while (bits != 0) {
+                    int cell = (word << 6) + Long.numberOfTrailingZeros(bits);
+                    hash ^= keys[1 + cell * numberOfPlayers + p];
+                    bits &= bits - 1;
+                }
+            }
+        }
+        return hash;
+    }
+
+    //Same hash for every rotation/reflection of the board (all 8 on square boards, the 4 that keep
+    //the shape otherwise), with the player to move mixed in. The winning transform is stored in
+    //transformOut[0] when it is given, so a move can be mapped to and from the canonical board
+    public static long canonicalHash(OXOModel model, int[] transformOut) {
+        int rows = model.getNumberOfRows();
+        int cols = model.getNumberOfColumns();
+        int numberOfPlayers = model.getNumberOfPlayers();
+        long[] keys = keysFor(rows, cols, model.getWinThreshold(), numberOfPlayers);
+        int transforms = rows == cols ? 8 : 4;
+        long best = 0;
+        int bestTransform = 0;
+        for (int t = 0; t < transforms; t++) {
+            long hash = keys[0];
+            for (int row = 0; row < rows; row++) {
+                for (int col = 0; col < cols; col++) {
+                    OXOPlayer owner = model.getCellOwner(row, col);
+                    if (owner != null) {
+                        int cell = transformCell(t, row * cols + col, rows, cols);
+                        hash ^= keys[1 + cell * numberOfPlayers + playerNumberOf(model, owner)];
+                    }
+                }
+            }
+            if (t == 0 || hash < best) {
+                best = hash;
+                bestTransform = t;
+            }
+        }
+        if (transformOut != null) {
+            transformOut[0] = bestTransform;
+        }
+        return best ^ (model.getCurrentPlayerNumber() * 0x9E3779B97F4A7C15L);
+    }
+
+    //Where cell (row * cols + col) ends up under transform t; 4-7 swap rows and columns so need a square board
+    static int transformCell(int t, int cell, int rows, int cols) {
+        int r = cell / cols;
+        int c = cell % cols;
+        switch (t) {
+            case 0: return r * cols + c;
+            case 1: return (rows - 1 - r) * cols + c;
+            case 2: return r * cols + (cols - 1 - c);
+            case 3: return (rows - 1 - r) * cols + (cols - 1 - c);
+            case 4: return c * cols + r;
+            case 5: return (cols - 1 - c) * cols + r;
+            case 6: return c * cols + (rows - 1 - r);
+            default: return (cols - 1 - c) * cols + (rows - 1 - r);
+        }
+    }
+
+    static int untransformCell(int t, int cell, int rows, int cols) {
+        for (int original = 0; original < rows * cols; original++) {
+            if (transformCell(t, original, rows, cols) == cell) {
+                return original;
+            }
+        }
+        throw new IllegalArgumentException("Cell " + cell + " is not on a " + rows + "x" + cols + " board");
+    }
+
+    static int playerNumberOf(OXOModel model, OXOPlayer player) {
+        for (int p = 0; p < model.getNumberOfPlayers(); p++) {
+            if (model.getPlayerByNumber(p) == player) {
+                return p;
+            }
+        }
+        throw new IllegalArgumentException("Player " + player.getPlayingLetter() + " is not in this game");
+    }
+}
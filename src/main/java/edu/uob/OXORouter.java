@@ -0,0 +1,348 @@
+package edu.uob;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+//Spreads game sessions over OXOWorker processes with a consistent-hash ring, so adding or
+//removing a worker only moves the sessions that land on it. A session is tracked from newGame
+//until endGame and is always routed to the worker that actually holds its game. Rebalancing copies
+//every moving game to its new worker first and only switches over once all the copies are in;
+//if any copy fails the change of workers is rolled back and nothing has moved.
+public class OXORouter implements Closeable {
+    //points per worker on the ring - more points give a more even spread
+    static final int VIRTUAL_NODES = 128;
+
+    private final TreeMap<Long, InetSocketAddress> ring = new TreeMap<Long, InetSocketAddress>();
+    private final HashMap<InetSocketAddress, ArrayBlockingQueue<Connection>> connections = new HashMap<InetSocketAddress, ArrayBlockingQueue<Connection>>();
+    //where each session's game currently lives
+    private final ConcurrentHashMap<String, InetSocketAddress> sessions = new ConcurrentHashMap<String, InetSocketAddress>();
+    //moves take the read lock; changing the set of workers takes the write lock
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final int connectionsPerWorker;
+
+    public OXORouter(int connectionsPerWorker) {
+        this.connectionsPerWorker = connectionsPerWorker;
+    }
+
+    public String newGame(String session, int rows, int cols, int winThreshold) throws IOException {
+        lock.readLock().lock();
+        try {
+            InetSocketAddress worker = locate(session);
+            String reply = request(worker, "NEW " + session + " " + rows + " " + cols + " " + winThreshold);
+            if (reply.equals("ok")) {
+                sessions.put(session, worker);
+            }
+            return reply;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    //Sessions have to be started with newGame first; the worker answers an error otherwise
+    public String move(String session, String command) throws IOException {
+        lock.readLock().lock();
+        try {
+            return request(locate(session), "MOVE " + session + " " + command);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    //Frees the session's game on its worker and stops tracking it; call once a game is finished with
+    public String endGame(String session) throws IOException {
+        lock.readLock().lock();
+        try {
+            InetSocketAddress worker = locate(session);
+            sessions.remove(session);
+            return request(worker, "DROP " + session);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int getNumberOfSessions() {
+        return sessions.size();
+    }
+
+    public int getNumberOfWorkers() {
+        lock.readLock().lock();
+        try {
+            return connections.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public InetSocketAddress workerFor(String session) {
+        lock.readLock().lock();
+        try {
+            return ownerOf(session);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void addWorker(InetSocketAddress worker) throws IOException {
+        lock.writeLock().lock();
+        try {
+            if (connections.containsKey(worker)) {
+                return;
+            }
+            ArrayBlockingQueue<Connection> pool = new ArrayBlockingQueue<Connection>(connectionsPerWorker);
+            for (int i = 0; i < connectionsPerWorker; i++) {
+                pool.add(new Connection(worker));
+            }
+            connections.put(worker, pool);
+            addToRing(worker);
+            try {
+                rebalance();
+            } catch (IOException | RuntimeException exception) {
+                //nothing has moved yet, so taking the worker back out restores the old routing
+                removeFromRing(worker);
+                closeAll(connections.remove(worker));
+                throw exception;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    //Graceful leave: every game on the worker is handed to its new owner before the worker is dropped
+    public void removeWorker(InetSocketAddress worker) throws IOException {
+        lock.writeLock().lock();
+        try {
+            if (!connections.containsKey(worker)) {
+                return;
+            }
+            removeFromRing(worker);
+            if (ring.isEmpty() && !sessions.isEmpty()) {
+                addToRing(worker);
+                throw new IllegalStateException("Cannot remove the last worker while it still hosts games");
+            }
+            try {
+                rebalance();
+            } catch (IOException | RuntimeException exception) {
+                //the worker keeps its games; if it is dead, evictWorker is the way to get rid of it
+                addToRing(worker);
+                throw exception;
+            }
+            closeAll(connections.remove(worker));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    //For a worker that has died: drops it without trying to move its games, which are lost. Their
+    //sessions are forgotten, so later moves on them get an error rather than a fresh board.
+    //Returns the number of sessions lost
+    public int evictWorker(InetSocketAddress worker) throws IOException {
+        lock.writeLock().lock();
+        try {
+            if (!connections.containsKey(worker)) {
+                return 0;
+            }
+            removeFromRing(worker);
+            int lost = 0;
+            for (Map.Entry<String, InetSocketAddress> entry : sessions.entrySet()) {
+                if (entry.getValue().equals(worker) && sessions.remove(entry.getKey(), worker)) {
+                    lost++;
+                }
+            }
+            closeAll(connections.remove(worker));
+            return lost;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void close() throws IOException {
+        lock.writeLock().lock();
+        try {
+            for (ArrayBlockingQueue<Connection> pool : connections.values()) {
+                closeAll(pool);
+            }
+            connections.clear();
+            ring.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    //Where the session's game is: its tracked worker, or where the ring puts it if it isn't tracked.
+    //Caller must hold the lock
+    private InetSocketAddress locate(String session) {
+        InetSocketAddress worker = sessions.get(session);
+        return worker != null ? worker : ownerOf(session);
+    }
+
+    //Caller must hold the write lock. Copies every game whose owner has changed onto its new worker
+    //and only then switches the sessions over and drops the old copies; if any copy fails, the copies
+    //already made are dropped again and the exception is thrown with every session where it was
+    private void rebalance() throws IOException {
+        ArrayList<Map.Entry<String, InetSocketAddress>> moves = new ArrayList<Map.Entry<String, InetSocketAddress>>();
+        for (Map.Entry<String, InetSocketAddress> entry : sessions.entrySet()) {
+            if (!ownerOf(entry.getKey()).equals(entry.getValue())) {
+                moves.add(Map.entry(entry.getKey(), entry.getValue()));
+            }
+        }
+        ArrayList<Map.Entry<String, InetSocketAddress>> copied = new ArrayList<Map.Entry<String, InetSocketAddress>>();
+        try {
+            for (Map.Entry<String, InetSocketAddress> move : moves) {
+                String session = move.getKey();
+                InetSocketAddress target = ownerOf(session);
+                String reply = request(move.getValue(), "EXPORT " + session);
+                if (!reply.startsWith("state ")) {
+                    throw new IOException("Worker " + move.getValue() + " could not export session " + session + ": " + reply);
+                }
+                String imported = request(target, "IMPORT " + session + " " + reply.substring(6));
+                if (!imported.equals("ok")) {
+                    throw new IOException("Worker " + target + " refused session " + session + ": " + imported);
+                }
+                copied.add(Map.entry(session, target));
+            }
+        } catch (IOException | RuntimeException exception) {
+            for (Map.Entry<String, InetSocketAddress> copy : copied) {
+                try {
+                    request(copy.getValue(), "DROP " + copy.getKey());
+                } catch (IOException dropFailed) {
+                    //a stray copy nobody routes to; a later IMPORT of the session replaces it
+                    exception.addSuppressed(dropFailed);
+                }
+            }
+            throw exception;
+        }
+        for (Map.Entry<String, InetSocketAddress> move : moves) {
+            String session = move.getKey();
+            sessions.put(session, ownerOf(session));
+            try {
+                request(move.getValue(), "DROP " + session);
+            } catch (IOException exception) {
+                //the game is already safe on its new worker, so the old copy is only wasted memory
+                System.out.println("Could not drop session " + session + " from " + move.getValue() + ": " + exception);
+            }
+        }
+    }
+
+    private void addToRing(InetSocketAddress worker) {
+        for (int i = 0; i < VIRTUAL_NODES; i++) {
+            ring.put(hash(worker + "#" + i), worker);
+        }
+    }
+
+    private void removeFromRing(InetSocketAddress worker) {
+        for (int i = 0; i < VIRTUAL_NODES; i++) {
+            ring.remove(hash(worker + "#" + i));
+        }
+    }
+
+    private static void closeAll(Iterable<Connection> pool) throws IOException {
+        for (Connection connection : pool) {
+            connection.close();
+        }
+    }
+
+    private InetSocketAddress ownerOf(String session) {
+        if (ring.isEmpty()) {
+            throw new IllegalStateException("No workers available");
+        }
+        Map.Entry<Long, InetSocketAddress> entry = ring.ceilingEntry(hash(session));
+        return entry != null ? entry.getValue() : ring.firstEntry().getValue();
+    }
+
+    private String request(InetSocketAddress worker, String request) throws IOException {
+        ArrayBlockingQueue<Connection> pool = connections.get(worker);
+        if (pool == null) {
+            throw new IOException("Worker " + worker + " is not connected");
+        }
+        Connection connection;
+        try {
+            connection = pool.take();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted waiting for a connection to " + worker, exception);
+        }
+        try {
+            return connection.send(request);
+        } finally {
+            pool.add(connection);
+        }
+    }
+
+    //FNV-1a followed by a 64-bit finaliser, so nearby ids spread around the ring
+    static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    //One socket to a worker. A request that fails part way leaves the socket out of step with the
+    //worker (a reply may still be on its way), so the socket is closed and the next request opens a new one
+    private static class Connection implements Closeable {
+        private final InetSocketAddress worker;
+        private Socket socket;
+        private BufferedReader input;
+        private BufferedWriter output;
+
+        Connection(InetSocketAddress worker) throws IOException {
+            this.worker = worker;
+            connect();
+        }
+
+        String send(String request) throws IOException {
+            if (socket == null) {
+                connect();
+            }
+            try {
+                output.write(request);
+                output.write('\n');
+                output.flush();
+                String reply = input.readLine();
+                if (reply == null) {
+                    throw new IOException("Worker " + worker + " closed the connection");
+                }
+                return reply;
+            } catch (IOException exception) {
+                try {
+                    close();
+                } catch (IOException closeFailed) {
+                    exception.addSuppressed(closeFailed);
+                }
+                throw exception;
+            }
+        }
+
+        public void close() throws IOException {
+            if (socket != null) {
+                Socket closing = socket;
+                socket = null;
+                closing.close();
+            }
+        }
+
+        private void connect() throws IOException {
+            socket = new Socket(worker.getAddress(), worker.getPort());
+            socket.setTcpNoDelay(true);
+            input = new BufferedReader(new InputStreamReader(socket.getInputStream()));
+            output = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream()));
+        }
+    }
+}
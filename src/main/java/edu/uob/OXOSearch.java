@@ -0,0 +1,114 @@
+package edu.uob;
+
+//Depth-limited negamax with alpha-beta pruning for two-player games, scored by OXOEvaluator.
+//The model is changed during the search but always put back the way it was.
+public class OXOSearch {
+    private final OXOModel model;
+    private final OXOEvaluator evaluator;
+    //cells ordered by how many winning windows pass through them, busiest (usually central) first
+    private final int[] moveOrder;
+    private final int cols;
+    private long nodes;
+    private long lastScore;
+
+    public OXOSearch(OXOModel model) {
+        if (model.getNumberOfPlayers() != 2) {
+            throw new IllegalArgumentException("Search only supports two-player games");
+        }
+        this.model = model;
+        evaluator = new OXOEvaluator(model);
+        cols = model.getNumberOfColumns();
+        OXOLineTable table = OXOLineTable.get(model.getNumberOfRows(), cols, model.getWinThreshold());
+        int cells = model.getNumberOfRows() * cols;
+        moveOrder = new int[cells];
+        for (int i = 0; i < cells; i++) {
+            moveOrder[i] = i;
+        }
+        //insertion sort - boards are at most 81 cells and this only runs once per search
+        for (int i = 1; i < cells; i++) {
+            int cell = moveOrder[i];
+            int j = i - 1;
+            while (j >= 0 && table.cellWindows[moveOrder[j]].length < table.cellWindows[cell].length) {
+                moveOrder[j + 1] = moveOrder[j];
+                j--;
+            }
+            moveOrder[j + 1] = cell;
+        }
+    }
+
+    //Returns the best cell index (row * cols + col) for the player to move, or -1 if there are no moves
+    public int bestMove(int depth) {
+        nodes = 0;
+        int player = model.getCurrentPlayerNumber();
+        int best = -1;
+        long alpha = -Long.MAX_VALUE;
+        for (int cell : moveOrder) {
+            int row = cell / cols;
+            int col = cell % cols;
+            if (model.getCellOwner(row, col) != null) {
+                continue;
+            }
+            evaluator.makeMove(row, col, player);
+            long score = -negamax(depth - 1, 1, -Long.MAX_VALUE, -alpha, 1 - player, player);
+            evaluator.unmakeMove(row, col);
+            if (best == -1 || score > alpha) {
+                alpha = score;
+                best = cell;
+            }
+        }
+        lastScore = best == -1 ? 0 : alpha;
+        return best;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public long getLastScore() {
+        return lastScore;
+    }
+
+    //A win found sooner scores higher than one found later
+    public static boolean isForcedWin(long score) {
+        return score > OXOEvaluator.WIN_SCORE - 10000;
+    }
+
+    public static boolean isForcedLoss(long score) {
+        return score < -OXOEvaluator.WIN_SCORE + 10000;
+    }
+
+    //Number of moves (counting both players) until the forced win or loss lands
+    public static int pliesToResult(long score) {
+        return (int) (OXOEvaluator.WIN_SCORE - Math.abs(score));
+    }
+
+    private long negamax(int depth, int ply, long alpha, long beta, int player, int lastMover) {
+        nodes++;
+        if (evaluator.hasWon(lastMover)) {
+            return -(OXOEvaluator.WIN_SCORE - ply);
+        }
+        if (depth <= 0) {
+            return evaluator.evaluate(player);
+        }
+        boolean anyMove = false;
+        for (int cell : moveOrder) {
+            int row = cell / cols;
+            int col = cell % cols;
+            if (model.getCellOwner(row, col) != null) {
+                continue;
+            }
+            anyMove = true;
+            evaluator.makeMove(row, col, player);
+            long score = -negamax(depth - 1, ply + 1, -beta, -alpha, 1 - player, player);
+            evaluator.unmakeMove(row, col);
+            if (score > alpha) {
+                alpha = score;
+                if (alpha >= beta) {
+                    break;
+                }
+            }
+        }
+        //a full board with no winner is a draw
+        return anyMove ? alpha : 0;
+    }
+}
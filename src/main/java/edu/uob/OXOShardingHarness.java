@@ -0,0 +1,88 @@
+package edu.uob;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+//Starts 1, 2, 4 ... up to maxWorkers OXOWorker processes on this machine, drives random games
+//through an OXORouter from a fixed number of client threads, and prints moves per second for each.
+//  java edu.uob.OXOShardingHarness [maxWorkers] [clients] [secondsPerRun]
+public class OXOShardingHarness {
+
+    public static void main(String[] args) throws Exception {
+        int maxWorkers = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+        for (int workers = 1; workers <= maxWorkers; workers *= 2) {
+            long moves = run(workers, clients, seconds);
+            System.out.println(workers + " worker(s): " + moves / seconds + " moves/s");
+        }
+    }
+
+    static long run(int workers, int clients, int seconds) throws Exception {
+        ArrayList<Process> processes = new ArrayList<Process>();
+        try (OXORouter router = new OXORouter(Math.max(1, clients / workers))) {
+            for (int i = 0; i < workers; i++) {
+                Process process = startWorker();
+                processes.add(process);
+                BufferedReader output = new BufferedReader(new InputStreamReader(process.getInputStream()));
+                String banner = output.readLine();
+                if (banner == null || !banner.startsWith("listening ")) {
+                    throw new IOException("Worker failed to start: " + banner);
+                }
+                int port = Integer.parseInt(banner.substring("listening ".length()));
+                router.addWorker(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+            }
+            AtomicLong moves = new AtomicLong();
+            long deadline = System.nanoTime() + seconds * 1000000000L;
+            ArrayList<Thread> threads = new ArrayList<Thread>();
+            for (int c = 0; c < clients; c++) {
+                int client = c;
+                Thread thread = new Thread(() -> playUntil(router, client, deadline, moves));
+                threads.add(thread);
+                thread.start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            return moves.get();
+        } finally {
+            for (Process process : processes) {
+                process.destroy();
+            }
+        }
+    }
+
+    //Plays random 3x3 games, one session after another, until the deadline
+    static void playUntil(OXORouter router, int client, long deadline, AtomicLong moves) {
+        Random random = new Random(client);
+        int game = 0;
+        try {
+            while (System.nanoTime() < deadline) {
+                String session = "client" + client + "-game" + game++;
+                router.newGame(session, 3, 3, 3);
+                String reply = "ok";
+                while (!reply.startsWith("win") && !reply.equals("draw") && System.nanoTime() < deadline) {
+                    reply = router.move(session, "" + (char)('a' + random.nextInt(3)) + (char)('1' + random.nextInt(3)));
+                    moves.incrementAndGet();
+                }
+                router.endGame(session);
+            }
+        } catch (IOException exception) {
+            System.out.println("Client " + client + " failed: " + exception);
+        }
+    }
+
+    static Process startWorker() throws IOException {
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        return new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"), OXOWorker.class.getName())
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+    }
+}
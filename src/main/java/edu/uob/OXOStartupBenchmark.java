@@ -0,0 +1,61 @@
+package edu.uob;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+//Measures how long a fresh headless worker takes to start and answer its first move, from the
+//parent's point of view (process launch to reply), with and without a CDS archive.
+//  java edu.uob.OXOStartupBenchmark [runs] [cds archive]
+public class OXOStartupBenchmark {
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int runs = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        String archive = args.length > 1 ? args[1] : null;
+        report("default", measure(runs, null));
+        if (archive != null) {
+            report("cds " + archive, measure(runs, archive));
+        }
+    }
+
+    static long[] measure(int runs, String archive) throws IOException, InterruptedException {
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        long[] millis = new long[runs];
+        for (int run = 0; run < runs; run++) {
+            ArrayList<String> command = new ArrayList<String>();
+            command.add(java);
+            if (archive != null) {
+                command.add("-XX:SharedArchiveFile=" + archive);
+            }
+            command.add("-cp");
+            command.add(System.getProperty("java.class.path"));
+            command.add(OXOHeadlessGame.class.getName());
+            long start = System.nanoTime();
+            Process worker = new ProcessBuilder(command).redirectErrorStream(true).start();
+            Writer toWorker = new OutputStreamWriter(worker.getOutputStream());
+            BufferedReader fromWorker = new BufferedReader(new InputStreamReader(worker.getInputStream()));
+            toWorker.write("b2\n");
+            toWorker.flush();
+            String reply = fromWorker.readLine();
+            millis[run] = (System.nanoTime() - start) / 1000000;
+            toWorker.write("quit\n");
+            toWorker.flush();
+            worker.waitFor();
+            if (!"ok".equals(reply)) {
+                throw new IOException("Worker replied " + reply + " instead of ok");
+            }
+        }
+        return millis;
+    }
+
+    static void report(String label, long[] millis) {
+        long[] sorted = millis.clone();
+        Arrays.sort(sorted);
+        System.out.println(label + ": min " + sorted[0] + " ms, median " + sorted[sorted.length / 2] + " ms, max " + sorted[sorted.length - 1] + " ms over " + sorted.length + " runs");
+    }
+}
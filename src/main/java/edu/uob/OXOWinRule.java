@@ -0,0 +1,97 @@
+package edu.uob;
+
+public abstract class OXOWinRule {
+    //Remember the last table this rule used so that a game of fixed size never touches the shared
+    //cache. Tables are immutable, so racing threads at worst compile-look-up the same table twice
+    private volatile OXOLineTable lastTable;
+
+    abstract OXOLineTable compileTable(int rows, int cols, int winThreshold);
+
+    //Whether a cached table can be reused for this board; shapes ignore the win threshold
+    boolean tableMatches(OXOLineTable table, int rows, int cols, int winThreshold) {
+        return table.rows == rows && table.cols == cols && table.winThreshold == winThreshold;
+    }
+
+    public boolean isWinningPosition(OXOModel model, int playerNumber) {
+        OXOLineTable table = tableFor(model.getNumberOfRows(), model.getNumberOfColumns(), model.getWinThreshold());
+        return hasWinningWindow(table, model.getOccupancy(playerNumber));
+    }
+
+    public boolean isWinningPosition(OXOModel model, OXOPlayer player) {
+        return isWinningPosition(model, OXOPositionHash.playerNumberOf(model, player));
+    }
+
+    boolean hasWinningWindow(OXOLineTable table, long[] occupied) {
+        return table.findFilledWindow(occupied, 0) >= 0;
+    }
+
+    OXOLineTable tableFor(int rows, int cols, int winThreshold) {
+        OXOLineTable table = lastTable;
+        if (table == null || !tableMatches(table, rows, cols, winThreshold)) {
+            table = compileTable(rows, cols, winThreshold);
+            lastTable = table;
+        }
+        return table;
+    }
+
+    //N in a row (or more) horizontally, vertically or diagonally - the classic OXO rule
+    public static class StraightLine extends OXOWinRule {
+        OXOLineTable compileTable(int rows, int cols, int winThreshold) {
+            return OXOLineTable.get(rows, cols, winThreshold);
+        }
+    }
+
+    //Exactly N in a row: a line of N that carries on into another of the player's cells is an overline and doesn't count
+    public static class ExactLine extends StraightLine {
+        boolean hasWinningWindow(OXOLineTable table, long[] occupied) {
+            int w = table.findFilledWindow(occupied, 0);
+            while (w >= 0) {
+                if (!OXOLineTable.isSet(occupied, table.beforeCells[w]) && !OXOLineTable.isSet(occupied, table.afterCells[w])) {
+                    return true;
+                }
+                w = table.findFilledWindow(occupied, w + 1);
+            }
+            return false;
+        }
+    }
+
+    //Lines run off one edge of the board and carry on from the opposite edge
+    public static class WrapAround extends OXOWinRule {
+        OXOLineTable compileTable(int rows, int cols, int winThreshold) {
+            return OXOLineTable.wrapped(rows, cols, winThreshold);
+        }
+    }
+
+    //Any placement of a fixed shape (e.g. a 2x2 square or an L) wins; the win threshold is ignored
+    public static class CustomShape extends OXOWinRule {
+        private final int[] offsets;
+        private final String name;
+
+        //offsets are {row, col} pairs relative to the shape's top-left corner
+        public CustomShape(String name, int[][] shape) {
+            if (shape.length == 0) {
+                throw new IllegalArgumentException("A shape needs at least one cell");
+            }
+            this.name = name;
+            offsets = new int[shape.length * 2];
+            int minRow = Integer.MAX_VALUE;
+            int minCol = Integer.MAX_VALUE;
+            for (int[] cell : shape) {
+                minRow = Math.min(minRow, cell[0]);
+                minCol = Math.min(minCol, cell[1]);
+            }
+            for (int i = 0; i < shape.length; i++) {
+                offsets[i * 2] = shape[i][0] - minRow;
+                offsets[i * 2 + 1] = shape[i][1] - minCol;
+            }
+        }
+
+        OXOLineTable compileTable(int rows, int cols, int winThreshold) {
+            return OXOLineTable.shape(name, offsets, rows, cols);
+        }
+
+        boolean tableMatches(OXOLineTable table, int rows, int cols, int winThreshold) {
+            return table.rows == rows && table.cols == cols;
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package edu.uob;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+//Hosts many games, each keyed by a session id, behind a line-based protocol on a loopback port.
+//Requests and their replies (one line each):
+//  NEW <session> <rows> <cols> <threshold>   -> ok
+//  MOVE <session> <command>                  -> ok | win <letter> | draw | error <message>
+//  EXPORT <session>                          -> state <OXOGameState>   (a copy; the game stays here)
+//  IMPORT <session> <OXOGameState>           -> ok
+//  DROP <session>                            -> ok | error <message>   (the game leaves this worker)
+//  COUNT                                     -> number of games hosted
+//A MOVE for a session that hasn't been started with NEW (or IMPORTed) is an error, so a game that
+//went missing is reported rather than silently replaced by a blank board.
+public class OXOWorker implements Closeable {
+    private final ServerSocket server;
+    private final ConcurrentHashMap<String, OXOController> games = new ConcurrentHashMap<String, OXOController>();
+    //open client connections, so close() can hang up on them too
+    private final Set<Socket> clients = ConcurrentHashMap.newKeySet();
+    private volatile boolean running = true;
+
+    public OXOWorker(int port) throws IOException {
+        server = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+    }
+
+    //Run as its own process: prints the port it is listening on, then serves until killed
+    public static void main(String[] args) throws IOException {
+        OXOWorker worker = new OXOWorker(args.length > 0 ? Integer.parseInt(args[0]) : 0);
+        System.out.println("listening " + worker.getPort());
+        System.out.flush();
+        worker.serve();
+    }
+
+    public int getPort() {
+        return server.getLocalPort();
+    }
+
+    public InetSocketAddress getAddress() {
+        return new InetSocketAddress(InetAddress.getLoopbackAddress(), getPort());
+    }
+
+    public int getNumberOfGames() {
+        return games.size();
+    }
+
+    //Serve on a background thread (for running workers inside one JVM, e.g. in tests)
+    public OXOWorker start() {
+        Thread thread = new Thread(() -> serve(), "oxo-worker-" + getPort());
+        thread.setDaemon(true);
+        thread.start();
+        return this;
+    }
+
+    public void serve() {
+        while (running) {
+            try {
+                Socket client = server.accept();
+                Thread thread = new Thread(() -> handleConnection(client), "oxo-worker-connection");
+                thread.setDaemon(true);
+                thread.start();
+            } catch (IOException exception) {
+                if (running) {
+                    System.out.println("Worker failed to accept a connection: " + exception);
+                }
+            }
+        }
+    }
+
+    //Stops accepting and drops every open connection, as if the worker process had died
+    public void close() throws IOException {
+        running = false;
+        server.close();
+        for (Socket client : clients) {
+            client.close();
+        }
+    }
+
+    private void handleConnection(Socket client) {
+        clients.add(client);
+        try (Socket socket = client) {
+            if (!running) {
+                return;
+            }
+            socket.setTcpNoDelay(true);
+            BufferedReader input = new BufferedReader(new InputStreamReader(socket.getInputStream()));
+            BufferedWriter output = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream()));
+            String line;
+            while ((line = input.readLine()) != null) {
+                output.write(handleRequest(line));
+                output.write('\n');
+                output.flush();
+            }
+        } catch (SocketException exception) {
+            //the router hung up
+        } catch (IOException exception) {
+            System.out.println("Worker connection failed: " + exception);
+        } finally {
+            clients.remove(client);
+        }
+    }
+
+    String handleRequest(String request) {
+        String[] parts = request.split(" ", 3);
+        try {
+            switch (parts[0]) {
+                case "NEW": {
+                    String[] size = parts[2].split(" ");
+                    OXOModel model = new OXOModel(Integer.parseInt(size[0]), Integer.parseInt(size[1]), Integer.parseInt(size[2]));
+                    model.addPlayer(new OXOPlayer('X'));
+                    model.addPlayer(new OXOPlayer('O'));
+                    games.put(parts[1], new OXOController(model));
+                    return "ok";
+                }
+                case "MOVE": {
+                    OXOController controller = games.get(parts[1]);
+                    if (controller == null) {
+                        return "error No game for session " + parts[1];
+                    }
+                    synchronized (controller) {
+                        return OXOHeadlessGame.respond(controller, parts.length > 2 ? parts[2] : "");
+                    }
+                }
+                case "EXPORT": {
+                    OXOController controller = games.get(parts[1]);
+                    if (controller == null) {
+                        return "error No game for session " + parts[1];
+                    }
+                    synchronized (controller) {
+                        return "state " + OXOGameState.save(controller.gameModel);
+                    }
+                }
+                case "IMPORT":
+                    games.put(parts[1], new OXOController(OXOGameState.load(parts[2])));
+                    return "ok";
+                case "DROP":
+                    if (games.remove(parts[1]) == null) {
+                        return "error No game for session " + parts[1];
+                    }
+                    return "ok";
+                case "COUNT":
+                    return Integer.toString(games.size());
+                default:
+                    return "error Unknown request " + parts[0];
+            }
+        } catch (RuntimeException exception) {
+            //malformed request (missing fields, bad numbers, bad state)
+            return "error " + exception;
+        }
+    }
+}
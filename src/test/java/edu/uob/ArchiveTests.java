@@ -0,0 +1,118 @@
+package edu.uob;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.Deflater;
+
+class ArchiveTests {
+
+  // Games should come back out of the archive exactly as they went in, across several blocks
+  @Test
+  void testRoundTrip() throws IOException {
+    Path file = Files.createTempFile("oxo", ".archive");
+    try {
+      try (OXOArchiveWriter writer = new OXOArchiveWriter(file, 3)) {
+        for (int i = 0; i < 10; i++) {
+          writer.write(new OXOGameRecord(9, 9, 5, new char[] {'X', 'O', 'Z'}, new int[] {i, 80 - i, 40}));
+        }
+      }
+      try (OXOArchiveReader reader = new OXOArchiveReader(file)) {
+        assertEquals(10, reader.getGameCount());
+        assertEquals(4, reader.getBlockCount());
+        for (int i = 0; i < 10; i++) {
+          OXOGameRecord game = reader.next();
+          assertEquals(9, game.getNumberOfRows());
+          assertEquals(5, game.getWinThreshold());
+          assertEquals('Z', game.getPlayerLetter(2));
+          assertEquals(i, game.getMove(0));
+          assertEquals(80 - i, game.getMove(1));
+        }
+        assertFalse(reader.hasNext());
+        reader.seek(7);
+        assertEquals(7, reader.next().getMove(0));
+      }
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  // Replaying a stored game should reach the same result as playing it live
+  @Test
+  void testReplay() throws OXOMoveException {
+    OXOGameRecord game = OXOGameRecord.fromCommands(3, 3, 3, new char[] {'X', 'O'}, "a1", "b1", "a2", "b2", "a3");
+    OXOModel model = game.replay();
+    assertSame(model.getPlayerByNumber(0), model.getWinner());
+  }
+
+  // Draws are spotted on replay, and moves after the game has finished are refused like in a live game
+  @Test
+  void testReplayDrawAndMoveAfterWin() throws OXOMoveException {
+    OXOGameRecord draw = OXOGameRecord.fromCommands(3, 3, 3, new char[] {'X', 'O'},
+        "a1", "a2", "a3", "b2", "b1", "b3", "c2", "c1", "c3");
+    assertTrue(draw.replay().isGameDrawn());
+    OXOGameRecord tooLong = OXOGameRecord.fromCommands(3, 3, 3, new char[] {'X', 'O'}, "a1", "b1", "a2", "b2", "a3", "c3");
+    assertThrows(OXOMoveException.CellAlreadyTakenException.class, tooLong::replay);
+  }
+
+  // Records are limited to boards and players a live game could have
+  @Test
+  void testInvalidHeadersAreRejected() {
+    assertThrows(IllegalArgumentException.class, () -> new OXOGameRecord(0, 3, 3, new char[] {'X', 'O'}, new int[0]));
+    assertThrows(IllegalArgumentException.class, () -> new OXOGameRecord(3, 10, 3, new char[] {'X', 'O'}, new int[0]));
+    assertThrows(IllegalArgumentException.class, () -> new OXOGameRecord(3, 3, 3, new char[0], new int[0]));
+    assertThrows(IllegalArgumentException.class, () -> new OXOGameRecord(3, 3, 0, new char[] {'X', 'O'}, new int[0]));
+    assertThrows(IllegalArgumentException.class, () -> new OXOGameRecord(3, 3, -1, new char[] {'X', 'O'}, new int[0]));
+  }
+
+  // Counts and lengths read from a damaged file are checked before anything is sized from them
+  @Test
+  void testCorruptCountsAreReportedAsIOException() throws IOException {
+    // rows 3, cols 3, threshold 3, then a player count that decodes to -1
+    assertCorrupt(new byte[] {3, 3, 3, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x0F}, 0);
+    // a player count far bigger than what is left of the block
+    assertCorrupt(new byte[] {3, 3, 3, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0x7F}, 0);
+    // a valid game, but the block claims a negative raw length
+    assertCorrupt(new byte[] {3, 3, 3, 2, 'X', 'O', 1, 4}, -1);
+  }
+
+  // Writes a one-block archive by hand around the given raw game bytes (rawLength overrides the real length unless 0)
+  private void assertCorrupt(byte[] raw, int rawLength) throws IOException {
+    Deflater deflater = new Deflater();
+    deflater.setInput(raw);
+    deflater.finish();
+    byte[] compressed = new byte[256];
+    int compressedLength = deflater.deflate(compressed);
+    deflater.end();
+    Path file = Files.createTempFile("oxo", ".archive");
+    try {
+      try (DataOutputStream output = new DataOutputStream(Files.newOutputStream(file))) {
+        output.writeInt(OXOArchiveWriter.MAGIC);
+        output.writeInt(OXOArchiveWriter.VERSION);
+        output.writeInt(1);
+        output.writeInt(rawLength == 0 ? raw.length : rawLength);
+        output.writeInt(compressedLength);
+        output.write(compressed, 0, compressedLength);
+        long indexOffset = 8 + 12 + compressedLength;
+        output.writeInt(1);
+        output.writeLong(8);
+        output.writeLong(0);
+        output.writeLong(indexOffset);
+        output.writeLong(1);
+        output.writeInt(OXOArchiveWriter.MAGIC);
+      }
+      try (OXOArchiveReader reader = new OXOArchiveReader(file)) {
+        assertThrows(IOException.class, reader::next);
+      }
+    } finally {
+      Files.delete(file);
+    }
+  }
+}
@@ -0,0 +1,130 @@
+package edu.uob;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+
+class BatchSolverTests {
+
+  // Build a 3x3 position from a picture such as "XX./.O./..." with the given player to move
+  private OXOModel position(String picture, int playerToMove) {
+    OXOModel model = new OXOModel(3, 3, 3);
+    model.addPlayer(new OXOPlayer('X'));
+    model.addPlayer(new OXOPlayer('O'));
+    String[] rows = picture.split("/");
+    for (int row = 0; row < 3; row++) {
+      for (int col = 0; col < 3; col++) {
+        char cell = rows[row].charAt(col);
+        if (cell != '.') {
+          model.setCellOwner(row, col, model.getPlayerByNumber(cell == 'X' ? 0 : 1));
+        }
+      }
+    }
+    model.setCurrentPlayerNumber(playerToMove);
+    return model;
+  }
+
+  // Mirror images are solved once, and each gets the move that fits its own orientation
+  @Test
+  void testSymmetricPositionsShareOneSearch() throws InterruptedException {
+    ArrayList<OXOModel> positions = new ArrayList<OXOModel>();
+    positions.add(position("XX./.O./...", 0));
+    positions.add(position(".XX/.O./...", 0));
+    positions.add(position(".../.O./XX.", 0));
+    ConcurrentHashMap<Integer, OXOBatchSolver.Solution> answers = new ConcurrentHashMap<Integer, OXOBatchSolver.Solution>();
+    try (OXOBatchSolver solver = new OXOBatchSolver(2, 6)) {
+      solver.solveAll(positions, solution -> answers.put(solution.index, solution));
+      assertEquals(1, solver.getCacheSize());
+    }
+    assertEquals(3, answers.size());
+    int searched = 0;
+    for (OXOBatchSolver.Solution solution : answers.values()) {
+      assertEquals(1, solution.forcedWinIn);
+      if (!solution.fromCache) {
+        searched++;
+        assertTrue(solution.nodes > 0);
+      }
+    }
+    assertEquals(1, searched);
+    // X completes its own row in every case
+    assertEquals(0, answers.get(0).bestRow);
+    assertEquals(2, answers.get(0).bestCol);
+    assertEquals(0, answers.get(1).bestRow);
+    assertEquals(0, answers.get(1).bestCol);
+    assertEquals(2, answers.get(2).bestRow);
+    assertEquals(2, answers.get(2).bestCol);
+  }
+
+  // X has a fork (two threats at once) available, so it wins on its second move; the input is untouched
+  @Test
+  void testForcedWinInTwo() throws InterruptedException {
+    OXOModel fork = position("X../.O./..X", 1);
+    fork.setCellOwner(0, 2, fork.getPlayerByNumber(1));
+    fork.setCurrentPlayerNumber(0);
+    ArrayList<OXOModel> positions = new ArrayList<OXOModel>();
+    positions.add(fork);
+    ArrayList<OXOBatchSolver.Solution> answers = new ArrayList<OXOBatchSolver.Solution>();
+    try (OXOBatchSolver solver = new OXOBatchSolver(1, 5)) {
+      solver.solveAll(positions, answers::add);
+    }
+    assertEquals(1, answers.size());
+    assertEquals(2, answers.get(0).forcedWinIn);
+    assertFalse(answers.get(0).fromCache);
+    assertEquals(null, fork.getCellOwner(2, 0));
+  }
+
+  // A search that blows up (even with an Error) is reported for its own position and for every copy
+  // that was waiting on it
+  @Test
+  void testFailuresAreReported() throws InterruptedException {
+    checkFailureIsReported(new IllegalStateException("search failed"));
+    checkFailureIsReported(new StackOverflowError("search failed"));
+  }
+
+  private void checkFailureIsReported(Throwable thrown) throws InterruptedException {
+    ArrayList<OXOModel> positions = new ArrayList<OXOModel>();
+    positions.add(position("XX./.O./...", 0));
+    positions.add(position(".XX/.O./...", 0));
+    ConcurrentHashMap<Integer, OXOBatchSolver.Solution> answers = new ConcurrentHashMap<Integer, OXOBatchSolver.Solution>();
+    try (OXOBatchSolver solver = new OXOBatchSolver(1, 6) {
+      Solution solve(OXOModel model, int index) {
+        if (thrown instanceof Error) {
+          throw (Error) thrown;
+        }
+        throw (RuntimeException) thrown;
+      }
+    }) {
+      solver.solveAll(positions, solution -> answers.put(solution.index, solution));
+      assertEquals(0, solver.getCacheSize(), "A failed search must not be cached");
+    }
+    assertEquals(2, answers.size());
+    for (OXOBatchSolver.Solution solution : answers.values()) {
+      assertTrue(solution.isFailed());
+      assertSame(thrown, solution.failure);
+      assertEquals(-1, solution.bestRow);
+    }
+  }
+
+  // A batch with a position that can't be solved is refused before anything is searched
+  @Test
+  void testInvalidBatchIsRefusedUpFront() {
+    ArrayList<OXOModel> positions = new ArrayList<OXOModel>();
+    positions.add(position("XX./.O./...", 0));
+    OXOModel threePlayers = new OXOModel(3, 3, 3);
+    threePlayers.addPlayer(new OXOPlayer('X'));
+    threePlayers.addPlayer(new OXOPlayer('O'));
+    threePlayers.addPlayer(new OXOPlayer('Z'));
+    positions.add(threePlayers);
+    ArrayList<OXOBatchSolver.Solution> answers = new ArrayList<OXOBatchSolver.Solution>();
+    try (OXOBatchSolver solver = new OXOBatchSolver(1, 6)) {
+      assertThrows(IllegalArgumentException.class, () -> solver.solveAll(positions, answers::add));
+      assertEquals(0, solver.getCacheSize());
+    }
+    assertTrue(answers.isEmpty());
+  }
+}
@@ -0,0 +1,106 @@
+package edu.uob;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import edu.uob.OXOCommandGate.Verdict;
+import java.util.concurrent.atomic.AtomicLong;
+
+class CommandGateTests {
+  private OXOModel model;
+  private OXOCommandGate gate;
+  // Fake clock in nanoseconds, so refills happen when the test says so
+  private AtomicLong now;
+
+  // 10 commands a second per client, with bursts of up to 3
+  @BeforeEach
+  void setup() {
+    model = new OXOModel(3, 3, 3);
+    model.addPlayer(new OXOPlayer('X'));
+    model.addPlayer(new OXOPlayer('O'));
+    now = new AtomicLong();
+    gate = new OXOCommandGate(new OXOController(model), 10, 3, now::get);
+  }
+
+  // Junk that the controller would only throw out never reaches it
+  @Test
+  void testMalformedCommandsAreFiltered() {
+    assertEquals(Verdict.MALFORMED, gate.submit("bot", "abc123"));
+    now.addAndGet(1000000000L);
+    assertEquals(Verdict.MALFORMED, gate.submit("bot", "a0"));
+    now.addAndGet(1000000000L);
+    assertEquals(Verdict.MALFORMED, gate.submit("bot", "d1"));
+    now.addAndGet(1000000000L);
+    // rows are case-insensitive, as in the controller
+    assertEquals(Verdict.ACCEPTED, gate.submit("bot", "A1"));
+    assertEquals(3, gate.getCount("bot", Verdict.MALFORMED));
+    assertEquals(model.getPlayerByNumber(0), model.getCellOwner(0, 0));
+  }
+
+  // A flooding client runs out of tokens, but other clients aren't affected
+  @Test
+  void testFloodIsThrottledPerClient() {
+    for (int i = 0; i < 100; i++) {
+      gate.submit("bot", "zz");
+    }
+    assertEquals(3, gate.getCount("bot", Verdict.MALFORMED));
+    assertEquals(97, gate.getCount("bot", Verdict.THROTTLED));
+    assertEquals(Verdict.ACCEPTED, gate.submit("player", "b2"));
+    // A tenth of a second later the bot has earned exactly one more command
+    now.addAndGet(100000000L);
+    assertEquals(Verdict.MALFORMED, gate.submit("bot", "zz"));
+    assertEquals(Verdict.THROTTLED, gate.submit("bot", "zz"));
+    // Moves that get past the filter but break the rules are still counted, as rejections
+    assertEquals(Verdict.REJECTED, gate.submit("player", "b2"));
+    assertEquals(1, gate.getCount(Verdict.REJECTED));
+  }
+
+  // Clients that have been quiet long enough to refill are forgotten
+  @Test
+  void testIdleClientsAreForgotten() {
+    gate.submit("player", "a1");
+    gate.submit("bot", "zz");
+    assertEquals(2, gate.getNumberOfClients());
+    now.addAndGet(1000000000L);
+    gate.forgetIdleClients();
+    assertEquals(0, gate.getNumberOfClients());
+  }
+
+  // A stream of one-off client ids can't grow the bucket table without bound
+  @Test
+  void testClientTableIsBounded() {
+    gate = new OXOCommandGate(new OXOController(model), 10, 3, 2, now::get);
+    assertEquals(Verdict.MALFORMED, gate.submit("first", "zz"));
+    assertEquals(Verdict.MALFORMED, gate.submit("second", "zz"));
+    // both known clients are still refilling, so there is no room for a third
+    assertEquals(Verdict.THROTTLED, gate.submit("third", "zz"));
+    assertEquals(2, gate.getNumberOfClients());
+    now.addAndGet(1000000000L);
+    assertEquals(Verdict.MALFORMED, gate.submit("third", "zz"));
+    assertEquals(1, gate.getNumberOfClients());
+
+    // with no cap in reach, idle clients are still swept out as submits go by
+    OXOCommandGate open = new OXOCommandGate(new OXOController(model), 10, 3, now::get);
+    for (int i = 0; i < 10 * OXOCommandGate.SWEEP_INTERVAL; i++) {
+      open.submit("client" + i, "zz");
+      now.addAndGet(1000000L);
+    }
+    assertTrue(open.getNumberOfClients() <= OXOCommandGate.SWEEP_INTERVAL + 100, "Idle clients were never swept: " + open.getNumberOfClients());
+  }
+
+  // A client that pauses long enough for its bucket to be swept out keeps its history
+  @Test
+  void testCountsSurviveIdleSweeps() {
+    for (int round = 0; round < 40; round++) {
+      assertEquals(Verdict.MALFORMED, gate.submit("player", "zz"));
+      // the player goes quiet for a second while a flood of one-off bots triggers the automatic sweep
+      now.addAndGet(1000000000L);
+      for (int i = 0; i < OXOCommandGate.SWEEP_INTERVAL; i++) {
+        gate.submit("bot" + round + "-" + i, "zz");
+      }
+    }
+    assertEquals(40, gate.getCount("player", Verdict.MALFORMED));
+    assertEquals(40 + 40 * OXOCommandGate.SWEEP_INTERVAL, gate.getCount(Verdict.MALFORMED));
+  }
+}
@@ -0,0 +1,134 @@
+package edu.uob;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.Random;
+
+// Times engine operations, works out their latency percentiles and fails if any of them has got slower than
+// the stored baseline (src/test/resources/latency-baseline.properties) by more than the tolerance. Each sample
+// times a batch of BATCH operations and divides, so operations only a few timer ticks long are still measured
+// properly and every baseline can be compared as it is. Batches are kept short so that a rare pause (GC, the
+// scheduler) spoils few enough samples to stay out of the p99. Timings vary between machines; after a
+// deliberate change (or on new hardware) record a fresh baseline with
+//   mvn test -Dtest=EngineLatencyTests -Doxo.latency.record=src/test/resources/latency-baseline.properties
+class EngineLatencyTests {
+  private static final int WARMUP = 50000;
+  private static final int SAMPLES = 20000;
+  private static final int BATCH = 10;
+  private static final double TOLERANCE = Double.parseDouble(System.getProperty("oxo.latency.tolerance", "3.0"));
+
+  private interface Operation {
+    void run(int iteration) throws OXOMoveException;
+  }
+
+  @Test
+  void testLatencyAgainstBaseline() throws Exception {
+    Properties measured = new Properties();
+    measure(measured, "move.3x3", movesOn(3, 3, 3));
+    measure(measured, "move.9x9.5", movesOn(9, 9, 5));
+    measure(measured, "checkForWin.9x9.5", checkForWinOn(9, 9, 5));
+    measure(measured, "evaluator.makeUnmake.9x9.5", evaluatorOn(9, 9, 5));
+
+    String recordTo = System.getProperty("oxo.latency.record");
+    if (recordTo != null) {
+      try (OutputStream output = new FileOutputStream(recordTo)) {
+        measured.store(output, "Engine latency baseline in nanoseconds per operation (see EngineLatencyTests)");
+      }
+      return;
+    }
+    Properties baseline = new Properties();
+    try (InputStream input = EngineLatencyTests.class.getResourceAsStream("/latency-baseline.properties")) {
+      assertTrue(input != null, "No latency baseline found on the test classpath");
+      baseline.load(input);
+    }
+    StringBuilder regressions = new StringBuilder();
+    for (String key : baseline.stringPropertyNames()) {
+      double allowed = Double.parseDouble(baseline.getProperty(key)) * TOLERANCE;
+      double actual = Double.parseDouble(measured.getProperty(key, "0"));
+      if (actual > allowed) {
+        regressions.append(key).append(": ").append(actual).append(" ns (baseline ").append(baseline.getProperty(key))
+            .append(" ns, allowed ").append(String.format(Locale.ROOT, "%.1f", allowed)).append(" ns)\n");
+      }
+    }
+    assertTrue(regressions.length() == 0, "Latency regressions:\n" + regressions + "measured: " + measured);
+  }
+
+  // Runs the operation WARMUP times to let the JIT settle, then records p50 and p99 (per operation) of SAMPLES
+  // timed batches
+  private void measure(Properties results, String name, Operation operation) throws OXOMoveException {
+    for (int i = 0; i < WARMUP; i++) {
+      operation.run(i);
+    }
+    double[] nanos = new double[SAMPLES];
+    int iteration = 0;
+    for (int i = 0; i < SAMPLES; i++) {
+      long start = System.nanoTime();
+      for (int j = 0; j < BATCH; j++) {
+        operation.run(iteration++);
+      }
+      nanos[i] = (System.nanoTime() - start) / (double) BATCH;
+    }
+    Arrays.sort(nanos);
+    results.setProperty(name + ".p50", String.format(Locale.ROOT, "%.1f", nanos[SAMPLES / 2]));
+    results.setProperty(name + ".p99", String.format(Locale.ROOT, "%.1f", nanos[SAMPLES * 99 / 100]));
+  }
+
+  private static OXOModel newModel(int rows, int cols, int winThreshold) {
+    OXOModel model = new OXOModel(rows, cols, winThreshold);
+    model.addPlayer(new OXOPlayer('X'));
+    model.addPlayer(new OXOPlayer('O'));
+    return model;
+  }
+
+  // Random moves through the controller, starting a fresh game whenever one finishes
+  private Operation movesOn(int rows, int cols, int winThreshold) {
+    OXOModel model = newModel(rows, cols, winThreshold);
+    OXOController controller = new OXOController(model);
+    Random random = new Random(1);
+    String[] commands = new String[rows * cols];
+    for (int cell = 0; cell < commands.length; cell++) {
+      commands[cell] = "" + (char)('a' + cell / cols) + (char)('1' + cell % cols);
+    }
+    return iteration -> {
+      if (model.getWinner() != null || model.isGameDrawn()) {
+        controller.reset();
+      }
+      int cell = random.nextInt(commands.length);
+      if (model.getCellOwner(cell / cols, cell % cols) == null) {
+        controller.handleIncomingCommand(commands[cell]);
+      }
+    };
+  }
+
+  // Win checks on a half-full board with no winner, which is the slowest case (every line is looked at)
+  private Operation checkForWinOn(int rows, int cols, int winThreshold) {
+    OXOModel model = newModel(rows, cols, winThreshold);
+    for (int row = 0; row < rows; row++) {
+      for (int col = 0; col < cols; col++) {
+        if ((row + col) % 2 == 0 && (row / 2 + col) % 3 != 0) {
+          model.setCellOwner(row, col, model.getPlayerByNumber((row / 2 + col) % 2));
+        }
+      }
+    }
+    OXOController controller = new OXOController(model);
+    return iteration -> controller.checkForWin();
+  }
+
+  private Operation evaluatorOn(int rows, int cols, int winThreshold) {
+    OXOModel model = newModel(rows, cols, winThreshold);
+    OXOEvaluator evaluator = new OXOEvaluator(model);
+    return iteration -> {
+      int cell = iteration % (rows * cols);
+      evaluator.makeMove(cell / cols, cell % cols, iteration % 2);
+      evaluator.evaluate(0);
+      evaluator.unmakeMove(cell / cols, cell % cols);
+    };
+  }
+}
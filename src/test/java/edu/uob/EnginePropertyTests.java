@@ -0,0 +1,314 @@
+package edu.uob;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.fail;
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.Random;
+
+// Plays long random sequences of moves (legal and illegal), resizes and threshold changes against the real
+// engine and a deliberately simple reference version, and checks the two agree after every single step.
+// Run more sequences with e.g. mvn test -Doxo.property.sequences=200000 -Doxo.property.seed=1234
+class EnginePropertyTests {
+  private static final int SEQUENCES = Integer.getInteger("oxo.property.sequences", 3000);
+  private static final int STEPS = 60;
+
+  // Letters and digits the generator picks from. Upper-case rows are valid (rows are case-insensitive) and
+  // a '0' column has to be turned away with an OXOMoveException like any other bad identifier
+  private static final String ROW_CHARS = "abcdefghijklmnopqrstuvwxyzAIZ!1~";
+  private static final String COL_CHARS = "0123456789a!";
+
+  @Test
+  void testEngineMatchesReferenceOracle() {
+    long seed = Long.getLong("oxo.property.seed", System.nanoTime());
+    Random random = new Random(seed);
+    for (int sequence = 0; sequence < SEQUENCES; sequence++) {
+      int rows = 1 + random.nextInt(9);
+      int cols = 1 + random.nextInt(9);
+      int winThreshold = 2 + random.nextInt(5);
+      int players = 2 + random.nextInt(3);
+      OXOModel model = new OXOModel(rows, cols, winThreshold);
+      for (int p = 0; p < players; p++) {
+        model.addPlayer(new OXOPlayer((char)('A' + p)));
+      }
+      OXOController controller = new OXOController(model);
+      ReferenceGame reference = new ReferenceGame(rows, cols, winThreshold, players);
+      ArrayList<String> history = new ArrayList<String>();
+      for (int step = 0; step < STEPS; step++) {
+        String action = randomAction(random, reference);
+        history.add(action);
+        String actual = apply(controller, action);
+        String expected = reference.apply(action);
+        if (!actual.equals(expected) || !sameState(model, reference)) {
+          fail("Engine and reference disagree (seed " + seed + ", sequence " + sequence + ")\n"
+              + "start: " + rows + "x" + cols + " threshold " + winThreshold + ", " + players + " players\n"
+              + "actions: " + history + "\n"
+              + "engine said " + actual + ", reference said " + expected + "\n"
+              + "engine state: " + OXOGameState.save(model) + "\nreference state: " + reference);
+        }
+        checkOptimizedEngines(model, reference, seed, sequence, history);
+      }
+    }
+  }
+
+  // Moves are mostly legal-looking cells, with junk, resizes and threshold changes mixed in
+  private String randomAction(Random random, ReferenceGame reference) {
+    int choice = random.nextInt(100);
+    if (choice < 70) {
+      return "" + (char)('a' + random.nextInt(reference.rows + 1)) + (char)('1' + random.nextInt(reference.cols + 1));
+    } else if (choice < 80) {
+      StringBuilder junk = new StringBuilder();
+      junk.append(ROW_CHARS.charAt(random.nextInt(ROW_CHARS.length())));
+      int extra = random.nextInt(4);
+      for (int i = 0; i < extra; i++) {
+        junk.append(COL_CHARS.charAt(random.nextInt(COL_CHARS.length())));
+      }
+      return junk.toString();
+    }
+    String[] others = {"+row", "-row", "+col", "-col", "+win", "-win", "reset"};
+    return others[random.nextInt(others.length)];
+  }
+
+  private String apply(OXOController controller, String action) {
+    switch (action) {
+      case "+row": controller.addRow(); return "ok";
+      case "-row": controller.removeRow(); return "ok";
+      case "+col": controller.addColumn(); return "ok";
+      case "-col": controller.removeColumn(); return "ok";
+      case "+win": controller.increaseWinThreshold(); return "ok";
+      case "-win": controller.decreaseWinThreshold(); return "ok";
+      case "reset": controller.reset(); return "ok";
+      default:
+        try {
+          controller.handleIncomingCommand(action);
+          return "ok";
+        } catch (OXOMoveException exception) {
+          return exception.getClass().getSimpleName();
+        } catch (RuntimeException exception) {
+          return "crash " + exception;
+        }
+    }
+  }
+
+  private boolean sameState(OXOModel model, ReferenceGame reference) {
+    if (model.getNumberOfRows() != reference.rows || model.getNumberOfColumns() != reference.cols
+        || model.getWinThreshold() != reference.winThreshold
+        || model.getCurrentPlayerNumber() != reference.currentPlayer
+        || model.isGameDrawn() != reference.drawn) {
+      return false;
+    }
+    int winner = model.getWinner() == null ? -1 : OXOPositionHash.playerNumberOf(model, model.getWinner());
+    if (winner != reference.winner) {
+      return false;
+    }
+    for (int row = 0; row < reference.rows; row++) {
+      for (int col = 0; col < reference.cols; col++) {
+        OXOPlayer owner = model.getCellOwner(row, col);
+        int owned = owner == null ? -1 : OXOPositionHash.playerNumberOf(model, owner);
+        if (owned != reference.cells[row][col]) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  // The evaluator, the compiled win rules and the game state codec have to agree with the reference too
+  private void checkOptimizedEngines(OXOModel model, ReferenceGame reference, long seed, int sequence, ArrayList<String> history) {
+    OXOEvaluator evaluator = new OXOEvaluator(model);
+    OXOWinRule rule = new OXOWinRule.StraightLine();
+    for (int p = 0; p < reference.players; p++) {
+      boolean expected = reference.hasLine(p);
+      String where = " for player " + p + " (seed " + seed + ", sequence " + sequence + ", actions " + history + ")";
+      assertEquals(expected, evaluator.hasWon(p), "OXOEvaluator disagrees about a winning line" + where);
+      assertEquals(expected, rule.isWinningPosition(model, model.getPlayerByNumber(p)), "OXOWinRule disagrees about a winning line" + where);
+    }
+    assertEquals(OXOGameState.save(model), OXOGameState.save(OXOGameState.load(OXOGameState.save(model))));
+  }
+
+  // Straightforward re-implementation of OXOModel + OXOController, quirks included, written for clarity not speed
+  private static class ReferenceGame {
+    int rows;
+    int cols;
+    int winThreshold;
+    final int players;
+    int[][] cells;
+    int currentPlayer;
+    int winner = -1;
+    boolean drawn;
+
+    ReferenceGame(int rows, int cols, int winThreshold, int players) {
+      this.rows = rows;
+      this.cols = cols;
+      this.winThreshold = winThreshold;
+      this.players = players;
+      cells = emptyCells(rows, cols);
+    }
+
+    String apply(String action) {
+      switch (action) {
+        case "+row":
+          if (rows < 9) {
+            resize(rows + 1, cols);
+            drawn = false;
+          }
+          return "ok";
+        case "+col":
+          if (cols < 9) {
+            resize(rows, cols + 1);
+            drawn = false;
+          }
+          return "ok";
+        case "-row":
+          for (int col = 0; col < cols; col++) {
+            if (cells[rows - 1][col] != -1) return "ok";
+          }
+          if (rows > 1) {
+            resize(rows - 1, cols);
+            afterShrink();
+          }
+          return "ok";
+        case "-col":
+          for (int row = 0; row < rows; row++) {
+            if (cells[row][cols - 1] != -1) return "ok";
+          }
+          if (cols > 1) {
+            resize(rows, cols - 1);
+            afterShrink();
+          }
+          return "ok";
+        case "+win":
+          setWinThreshold(winThreshold + 1);
+          return "ok";
+        case "-win":
+          if (isEmpty() || winner != -1) {
+            setWinThreshold(winThreshold - 1);
+          }
+          return "ok";
+        case "reset":
+          cells = emptyCells(rows, cols);
+          currentPlayer = 0;
+          winner = -1;
+          drawn = false;
+          return "ok";
+        default:
+          return move(action);
+      }
+    }
+
+    String move(String command) {
+      if (command.length() != 2) return "InvalidIdentifierLengthException";
+      // row letters are case-insensitive
+      char rowLetter = Character.toLowerCase(command.charAt(0));
+      int row = rowLetter - 'a';
+      int col = Character.getNumericValue(command.charAt(1)) - 1;
+      // a finished game refuses every further move
+      if (gameOver()) return "CellAlreadyTakenException";
+      if (rowLetter < 'a' || rowLetter > 'z') return "InvalidIdentifierCharacterException";
+      if (!Character.isDigit(command.charAt(1)) || col > 26) return "InvalidIdentifierCharacterException";
+      // a '0' column is a digit but comes out as column -1
+      if (row >= rows || col < 0 || col >= cols) return "OutsideCellRangeException";
+      if (cells[row][col] != -1) return "CellAlreadyTakenException";
+      cells[row][col] = currentPlayer;
+      if (!gameOver()) {
+        currentPlayer = (currentPlayer + 1) % players;
+      }
+      return "ok";
+    }
+
+    // Like OXOController.checkForWin: only the player to move can be found to have won, and a full board is a draw
+    boolean gameOver() {
+      if (hasLine(currentPlayer)) {
+        winner = currentPlayer;
+        return true;
+      }
+      if (!isFull()) {
+        return false;
+      }
+      drawn = true;
+      return true;
+    }
+
+    boolean hasLine(int player) {
+      int[][] directions = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+      for (int row = 0; row < rows; row++) {
+        for (int col = 0; col < cols; col++) {
+          for (int[] direction : directions) {
+            int length = 0;
+            int r = row;
+            int c = col;
+            while (r >= 0 && r < rows && c >= 0 && c < cols && cells[r][c] == player) {
+              length++;
+              r += direction[0];
+              c += direction[1];
+            }
+            if (length >= winThreshold) return true;
+          }
+        }
+      }
+      return false;
+    }
+
+    void afterShrink() {
+      winner = -1;
+      drawn = false;
+      if (currentPlayer > 0) {
+        currentPlayer = (currentPlayer - 1) % players;
+      }
+    }
+
+    void setWinThreshold(int threshold) {
+      winThreshold = Math.max(3, threshold);
+    }
+
+    boolean isEmpty() {
+      for (int[] row : cells) {
+        for (int cell : row) {
+          if (cell != -1) return false;
+        }
+      }
+      return true;
+    }
+
+    boolean isFull() {
+      for (int[] row : cells) {
+        for (int cell : row) {
+          if (cell == -1) return false;
+        }
+      }
+      return true;
+    }
+
+    void resize(int newRows, int newCols) {
+      int[][] resized = emptyCells(newRows, newCols);
+      for (int row = 0; row < Math.min(rows, newRows); row++) {
+        for (int col = 0; col < Math.min(cols, newCols); col++) {
+          resized[row][col] = cells[row][col];
+        }
+      }
+      rows = newRows;
+      cols = newCols;
+      cells = resized;
+    }
+
+    static int[][] emptyCells(int rows, int cols) {
+      int[][] cells = new int[rows][cols];
+      for (int[] row : cells) {
+        java.util.Arrays.fill(row, -1);
+      }
+      return cells;
+    }
+
+    public String toString() {
+      StringBuilder text = new StringBuilder(rows + "x" + cols + " threshold " + winThreshold + ", player " + currentPlayer
+          + " to move, winner " + winner + ", drawn " + drawn + ", cells ");
+      for (int[] row : cells) {
+        for (int cell : row) {
+          text.append(cell == -1 ? '.' : (char)('0' + cell));
+        }
+        text.append('/');
+      }
+      return text.toString();
+    }
+  }
+}
@@ -0,0 +1,71 @@
+package edu.uob;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import java.util.Random;
+
+class EvaluatorTests {
+
+  // Counts kept up to date move by move must match a fresh count of the same board
+  @Test
+  void testIncrementalCountsMatchRebuild() {
+    OXOModel model = new OXOModel(6, 6, 4);
+    model.addPlayer(new OXOPlayer('X'));
+    model.addPlayer(new OXOPlayer('O'));
+    OXOEvaluator evaluator = new OXOEvaluator(model);
+    Random random = new Random(42);
+    for (int move = 0; move < 200; move++) {
+      int row = random.nextInt(6);
+      int col = random.nextInt(6);
+      if (model.getCellOwner(row, col) == null) {
+        evaluator.makeMove(row, col, move % 2);
+      } else {
+        evaluator.unmakeMove(row, col);
+      }
+      OXOEvaluator fresh = new OXOEvaluator(model);
+      for (int player = 0; player < 2; player++) {
+        assertEquals(fresh.evaluate(player), evaluator.evaluate(player));
+        for (int length = 1; length <= 4; length++) {
+          assertEquals(fresh.getOpenLines(player, length), evaluator.getOpenLines(player, length));
+        }
+      }
+    }
+  }
+
+  // A move in the centre of an empty board touches more windows than a corner, so it should score higher
+  @Test
+  void testCentreBeatsCorner() {
+    OXOModel model = new OXOModel(3, 3, 3);
+    model.addPlayer(new OXOPlayer('X'));
+    model.addPlayer(new OXOPlayer('O'));
+    OXOEvaluator evaluator = new OXOEvaluator(model);
+    evaluator.makeMove(1, 1, 0);
+    long centre = evaluator.evaluate(0);
+    evaluator.unmakeMove(1, 1);
+    evaluator.makeMove(0, 0, 0);
+    long corner = evaluator.evaluate(0);
+    assertTrue(centre > corner);
+    evaluator.makeMove(0, 1, 0);
+    evaluator.makeMove(0, 2, 0);
+    assertTrue(evaluator.hasWon(0));
+    assertEquals(OXOEvaluator.WIN_SCORE, evaluator.evaluate(0));
+    assertEquals(-OXOEvaluator.WIN_SCORE, evaluator.evaluate(1));
+  }
+
+  // Playing onto an occupied cell is refused and leaves both the board and the counts as they were
+  @Test
+  void testMoveOntoOccupiedCellIsRejected() {
+    OXOModel model = new OXOModel(3, 3, 3);
+    model.addPlayer(new OXOPlayer('X'));
+    model.addPlayer(new OXOPlayer('O'));
+    OXOEvaluator evaluator = new OXOEvaluator(model);
+    evaluator.makeMove(1, 1, 0);
+    long before = evaluator.evaluate(0);
+    assertThrows(IllegalArgumentException.class, () -> evaluator.makeMove(1, 1, 1));
+    assertEquals(model.getPlayerByNumber(0), model.getCellOwner(1, 1));
+    assertEquals(before, evaluator.evaluate(0));
+    assertEquals(before, new OXOEvaluator(model).evaluate(0));
+  }
+}
@@ -265,4 +265,17 @@ class ExampleControllerTests {
     assert(model.getWinThreshold() == 5);
     assert(controller.checkForWin() == true);
   }
+  // Commands the controller used to index the board with before checking them
+  @Test
+  void testMalformedCommandsAreRejectedNotCrashed() throws OXOMoveException {
+    assertThrows(InvalidIdentifierLengthException.class, ()-> controller.handleIncomingCommand(""));
+    assertThrows(OutsideCellRangeException.class, ()-> controller.handleIncomingCommand("a0"));
+    assertThrows(InvalidIdentifierCharacterException.class, ()-> controller.handleIncomingCommand("!1"));
+    assertThrows(OutsideCellRangeException.class, ()-> controller.handleIncomingCommand("D1"));
+    // Row letters are case-insensitive, so "A1" is the same cell as "a1"
+    OXOPlayer firstMovingPlayer = model.getPlayerByNumber(model.getCurrentPlayerNumber());
+    controller.handleIncomingCommand("A1");
+    assertEquals(firstMovingPlayer, controller.gameModel.getCellOwner(0, 0));
+    assertThrows(CellAlreadyTakenException.class, ()-> controller.handleIncomingCommand("a1"));
+  }
 }
@@ -0,0 +1,101 @@
+package edu.uob;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+class GamePoolTests {
+
+  // A released game should come back out of the pool as a clean board
+  @Test
+  void testReleasedGameIsReusedAndReset() throws OXOMoveException {
+    OXOGamePool pool = new OXOGamePool(4);
+    OXOController first = pool.acquire(3, 3, 3);
+    first.handleIncomingCommand("a1");
+    first.handleIncomingCommand("b1");
+    first.handleIncomingCommand("a2");
+    first.handleIncomingCommand("b2");
+    first.handleIncomingCommand("a3");
+    assertTrue(first.gameModel.getWinner() != null);
+    pool.release(first);
+    assertEquals(1, pool.getIdleCount());
+    assertEquals(0, pool.getInUseCount());
+
+    OXOController second = pool.acquire(3, 3, 3);
+    assertSame(first, second, "Pool handed out a new game instead of reusing the idle one");
+    assertTrue(second.isBoardEmpty());
+    assertNull(second.gameModel.getWinner());
+    assertEquals(0, second.gameModel.getCurrentPlayerNumber());
+    assertEquals(1, pool.getCreatedCount());
+    assertEquals(1, pool.getReusedCount());
+  }
+
+  // Games are filed by their size when released, so a resized board goes into a different bucket
+  @Test
+  void testResizedGameIsFiledUnderNewSize() {
+    OXOGamePool pool = new OXOGamePool(4);
+    OXOController controller = pool.acquire(3, 3, 3);
+    controller.addRow();
+    pool.release(controller);
+    assertEquals(0, pool.getIdleCount(3, 3));
+    assertEquals(1, pool.getIdleCount(4, 3));
+  }
+
+  // Once a bucket is full, further releases are dropped rather than kept
+  @Test
+  void testCapacityIsRespected() {
+    OXOGamePool pool = new OXOGamePool(1);
+    pool.preallocate(5, 5, 3);
+    assertEquals(1, pool.getIdleCount(5, 5));
+    OXOController a = pool.acquire(5, 5, 4);
+    OXOController b = pool.acquire(5, 5, 4);
+    assertEquals(4, b.gameModel.getWinThreshold());
+    pool.release(a);
+    pool.release(b);
+    assertEquals(1, pool.getIdleCount(5, 5));
+    assertEquals(1, pool.getDiscardedCount());
+  }
+
+  // Variant rules set by one game must not leak into the next game handed out from the pool
+  @Test
+  void testReleasedGameGoesBackToStandardRules() throws OXOMoveException {
+    OXOGamePool pool = new OXOGamePool(4);
+    OXOController first = pool.acquire(3, 3, 3);
+    first.setWinRule(new OXOWinRule.CustomShape("square", new int[][] {{0, 0}, {0, 1}, {1, 0}, {1, 1}}));
+    first.setGravity(true);
+    pool.release(first);
+
+    OXOController second = pool.acquire(3, 3, 3);
+    assertSame(first, second);
+    assertFalse(second.isGravity());
+    assertSame(OXOWinRule.StraightLine.class, second.getWinRule().getClass());
+    second.handleIncomingCommand("a1");
+    assertTrue(second.gameModel.getCellOwner(0, 0) != null, "Gravity moved the piece off a1");
+    second.handleIncomingCommand("b1");
+    second.handleIncomingCommand("a2");
+    second.handleIncomingCommand("b2");
+    second.handleIncomingCommand("a3");
+    assertSame(second.gameModel.getPlayerByNumber(0), second.gameModel.getWinner());
+  }
+
+  // Releasing a game twice, or one the pool never handed out, must not corrupt the pool's books
+  @Test
+  void testDoubleAndForeignReleasesAreRejected() {
+    OXOGamePool pool = new OXOGamePool(4);
+    OXOController controller = pool.acquire(3, 3, 3);
+    pool.release(controller);
+    assertThrows(IllegalArgumentException.class, () -> pool.release(controller));
+    OXOModel model = new OXOModel(3, 3, 3);
+    model.addPlayer(new OXOPlayer('X'));
+    model.addPlayer(new OXOPlayer('O'));
+    assertThrows(IllegalArgumentException.class, () -> pool.release(new OXOController(model)));
+    assertEquals(0, pool.getInUseCount());
+    assertEquals(1, pool.getIdleCount());
+    assertSame(controller, pool.acquire(3, 3, 3));
+    assertEquals(0, pool.getIdleCount());
+  }
+}
@@ -0,0 +1,76 @@
+package edu.uob;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+class OpeningBookTests {
+
+  // A book built for 3x3 should answer every position in its first few plies
+  @Test
+  void testBuildAndLookup() throws IOException {
+    OXOOpeningBookBuilder builder = new OXOOpeningBookBuilder(4);
+    // 1 empty board + 9 one-move boards + 72 two-move boards
+    assertEquals(82, builder.addConfiguration(3, 3, 3, 3));
+    Path file = Files.createTempFile("oxo", ".book");
+    try {
+      builder.write(file);
+      try (OXOOpeningBook book = new OXOOpeningBook(file)) {
+        assertEquals(82, book.getNumberOfEntries());
+        OXOModel model = new OXOModel(3, 3, 3);
+        model.addPlayer(new OXOPlayer('X'));
+        model.addPlayer(new OXOPlayer('O'));
+        assertTrue(book.lookup(model) >= 0);
+        model.setCellOwner(0, 0, model.getPlayerByNumber(0));
+        model.setCellOwner(1, 1, model.getPlayerByNumber(1));
+        int entry = book.findEntry(model);
+        assertTrue(entry >= 0);
+        assertEquals(4, book.getSearchDepth(entry));
+        assertEquals(book.lookup(model), book.getBestMove(entry));
+        model.setCellOwner(0, 1, model.getPlayerByNumber(0));
+        assertEquals(-1, book.lookup(model), "Three-move positions shouldn't be in a three-ply book");
+        // A 5x5 board was never added, so it isn't in the book
+        assertEquals(-1, book.lookup(new OXOModel(5, 5, 4)));
+      }
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  // X has a1 and a2, so O (to move) has to block at a3
+  @Test
+  void testSearchBlocksThreat() {
+    OXOModel model = new OXOModel(3, 3, 3);
+    model.addPlayer(new OXOPlayer('X'));
+    model.addPlayer(new OXOPlayer('O'));
+    model.setCellOwner(0, 0, model.getPlayerByNumber(0));
+    model.setCellOwner(1, 1, model.getPlayerByNumber(1));
+    model.setCellOwner(0, 1, model.getPlayerByNumber(0));
+    model.setCurrentPlayerNumber(1);
+    OXOSearch search = new OXOSearch(model);
+    assertEquals(2, search.bestMove(3));
+    assertTrue(search.getNodes() > 0);
+    // The search has to leave the board as it found it
+    assertEquals(null, model.getCellOwner(0, 2));
+  }
+
+  // Hashes are stored in book files, so they must stay the same from one version to the next
+  @Test
+  void testHashesAreStable() {
+    OXOModel model = new OXOModel(3, 3, 3);
+    model.addPlayer(new OXOPlayer('X'));
+    model.addPlayer(new OXOPlayer('O'));
+    model.setCellOwner(0, 0, model.getPlayerByNumber(0));
+    model.setCellOwner(1, 1, model.getPlayerByNumber(1));
+    assertEquals(-1815534961342705042L, OXOPositionHash.hash(model));
+    OXOModel large = new OXOModel(9, 9, 5);
+    large.addPlayer(new OXOPlayer('X'));
+    large.addPlayer(new OXOPlayer('O'));
+    large.setCellOwner(8, 8, large.getPlayerByNumber(0));
+    large.setCellOwner(4, 1, large.getPlayerByNumber(1));
+    assertEquals(-8174522798031106229L, OXOPositionHash.hash(large));
+  }
+}
@@ -0,0 +1,148 @@
+package edu.uob;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import java.io.IOException;
+
+class ShardingTests {
+
+  // A game state should survive being written out and read back in
+  @Test
+  void testGameStateRoundTrip() throws OXOMoveException {
+    OXOModel model = new OXOModel(4, 5, 3);
+    model.addPlayer(new OXOPlayer('X'));
+    model.addPlayer(new OXOPlayer('O'));
+    OXOController controller = new OXOController(model);
+    controller.handleIncomingCommand("a1");
+    controller.handleIncomingCommand("d5");
+    controller.handleIncomingCommand("b2");
+    String state = OXOGameState.save(model);
+    OXOModel copy = OXOGameState.load(state);
+    assertEquals(state, OXOGameState.save(copy));
+    assertEquals(4, copy.getNumberOfRows());
+    assertEquals(5, copy.getNumberOfColumns());
+    assertEquals('O', copy.getCellOwner(3, 4).getPlayingLetter());
+    assertEquals(1, copy.getCurrentPlayerNumber());
+  }
+
+  // Games carry on where they left off after workers join and leave
+  @Test
+  void testGamesSurviveRebalancing() throws IOException {
+    try (OXOWorker first = new OXOWorker(0).start();
+         OXOWorker second = new OXOWorker(0).start();
+         OXOWorker third = new OXOWorker(0).start();
+         OXORouter router = new OXORouter(2)) {
+      router.addWorker(first.getAddress());
+      router.addWorker(second.getAddress());
+      for (int i = 0; i < 40; i++) {
+        router.newGame("session" + i, 3, 3, 3);
+        router.move("session" + i, "a1");
+        router.move("session" + i, "b1");
+      }
+      assertEquals(40, first.getNumberOfGames() + second.getNumberOfGames());
+
+      router.addWorker(third.getAddress());
+      assertEquals(40, first.getNumberOfGames() + second.getNumberOfGames() + third.getNumberOfGames());
+      assertTrue(third.getNumberOfGames() > 0, "New worker didn't take over any games");
+      for (int i = 0; i < 40; i++) {
+        router.move("session" + i, "a2");
+        router.move("session" + i, "b2");
+      }
+
+      router.removeWorker(first.getAddress());
+      assertEquals(0, first.getNumberOfGames());
+      for (int i = 0; i < 40; i++) {
+        assertEquals("win X", router.move("session" + i, "a3"));
+      }
+
+      // Finished games are freed on their worker and no longer tracked by the router
+      for (int i = 0; i < 40; i++) {
+        assertEquals("ok", router.endGame("session" + i));
+      }
+      assertEquals(0, router.getNumberOfSessions());
+      assertEquals(0, second.getNumberOfGames() + third.getNumberOfGames());
+    }
+  }
+
+  // Exporting a game copies it; only DROP takes it off the worker
+  @Test
+  void testExportIsNotDestructive() throws IOException {
+    try (OXOWorker worker = new OXOWorker(0)) {
+      assertTrue(worker.handleRequest("MOVE s a1").startsWith("error"), "A move needs a game started with NEW");
+      assertEquals(0, worker.getNumberOfGames());
+      assertEquals("ok", worker.handleRequest("NEW s 3 3 3"));
+      assertEquals("ok", worker.handleRequest("MOVE s a1"));
+      String exported = worker.handleRequest("EXPORT s");
+      assertTrue(exported.startsWith("state "), exported);
+      assertEquals(1, worker.getNumberOfGames());
+      assertEquals(exported, worker.handleRequest("EXPORT s"));
+      assertEquals("ok", worker.handleRequest("DROP s"));
+      assertEquals(0, worker.getNumberOfGames());
+      assertTrue(worker.handleRequest("DROP s").startsWith("error"));
+    }
+  }
+
+  // A worker that refuses IMPORT must not take over any sessions: the join is undone and every game
+  // carries on where it was
+  @Test
+  void testFailedRebalanceIsRolledBack() throws IOException {
+    try (OXOWorker first = new OXOWorker(0).start();
+         OXOWorker refusing = new OXOWorker(0) {
+           String handleRequest(String request) {
+             return request.startsWith("IMPORT") ? "error refused" : super.handleRequest(request);
+           }
+         }.start();
+         OXORouter router = new OXORouter(2)) {
+      router.addWorker(first.getAddress());
+      for (int i = 0; i < 20; i++) {
+        router.newGame("session" + i, 3, 3, 3);
+        router.move("session" + i, "a1");
+        router.move("session" + i, "b1");
+        router.move("session" + i, "a2");
+        router.move("session" + i, "b2");
+      }
+      assertThrows(IOException.class, () -> router.addWorker(refusing.getAddress()));
+      assertEquals(1, router.getNumberOfWorkers());
+      assertEquals(20, first.getNumberOfGames());
+      assertEquals(0, refusing.getNumberOfGames());
+      for (int i = 0; i < 20; i++) {
+        assertEquals("win X", router.move("session" + i, "a3"));
+      }
+    }
+  }
+
+  // A worker that has died can't hand its games over, but it can still be evicted; its sessions then
+  // answer with an error instead of quietly starting again on an empty board
+  @Test
+  void testDeadWorkerCanBeEvicted() throws IOException {
+    try (OXOWorker first = new OXOWorker(0).start();
+         OXOWorker second = new OXOWorker(0).start();
+         OXORouter router = new OXORouter(2)) {
+      router.addWorker(first.getAddress());
+      router.addWorker(second.getAddress());
+      for (int i = 0; i < 20; i++) {
+        router.newGame("session" + i, 3, 3, 3);
+        router.move("session" + i, "a1");
+      }
+      int onSecond = second.getNumberOfGames();
+      assertTrue(onSecond > 0 && onSecond < 20, "Sessions weren't spread over both workers");
+      second.close();
+      assertThrows(IOException.class, () -> router.removeWorker(second.getAddress()));
+      assertEquals(onSecond, router.evictWorker(second.getAddress()));
+      assertEquals(1, router.getNumberOfWorkers());
+      int lost = 0;
+      for (int i = 0; i < 20; i++) {
+        String reply = router.move("session" + i, "b1");
+        if (reply.startsWith("error")) {
+          lost++;
+        } else {
+          assertEquals("ok", reply);
+        }
+      }
+      assertEquals(onSecond, lost);
+      assertEquals(20 - onSecond, first.getNumberOfGames());
+    }
+  }
+}
@@ -0,0 +1,82 @@
+package edu.uob;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import edu.uob.OXOMoveException.*;
+import org.junit.jupiter.api.Test;
+
+class WinRuleTests {
+
+  private OXOController makeController(int rows, int cols, int winThreshold) {
+    OXOModel model = new OXOModel(rows, cols, winThreshold);
+    model.addPlayer(new OXOPlayer('X'));
+    model.addPlayer(new OXOPlayer('O'));
+    return new OXOController(model);
+  }
+
+  private void play(OXOController controller, String... commands) throws OXOMoveException {
+    for (String command : commands) {
+      controller.handleIncomingCommand(command);
+    }
+  }
+
+  // Four in a row with a threshold of three is an overline, so it shouldn't win under the exact rule
+  @Test
+  void testExactLineIgnoresOverline() throws OXOMoveException {
+    OXOController controller = makeController(3, 5, 3);
+    controller.setWinRule(new OXOWinRule.ExactLine());
+    play(controller, "a1", "c1", "a2", "c2", "a4", "c4", "a5", "c5");
+    assertNull(controller.gameModel.getWinner());
+    // Filling the gap makes a1-a5, five in a row, which is still an overline
+    play(controller, "a3");
+    assertNull(controller.gameModel.getWinner());
+  }
+
+  // a3, a1 and a2 only form a line once the board wraps round
+  @Test
+  void testWrapAroundLine() throws OXOMoveException {
+    OXOController controller = makeController(4, 4, 3);
+    controller.setWinRule(new OXOWinRule.WrapAround());
+    play(controller, "a4", "c2", "a1", "c3", "a2");
+    assertSame(controller.gameModel.getPlayerByNumber(0), controller.gameModel.getWinner());
+  }
+
+  // With gravity on, every move lands on the lowest free row of its column
+  @Test
+  void testGravityDropsPieces() throws OXOMoveException {
+    OXOController controller = makeController(3, 3, 3);
+    controller.setGravity(true);
+    play(controller, "a1", "a1", "a1");
+    OXOModel model = controller.gameModel;
+    assertSame(model.getPlayerByNumber(0), model.getCellOwner(2, 0));
+    assertSame(model.getPlayerByNumber(1), model.getCellOwner(1, 0));
+    assertSame(model.getPlayerByNumber(0), model.getCellOwner(0, 0));
+    assertThrows(CellAlreadyTakenException.class, ()-> controller.handleIncomingCommand("b1"));
+  }
+
+  // A 2x2 square wins under a custom shape rule, but not under the standard one
+  @Test
+  void testCustomShape() throws OXOMoveException {
+    OXOController controller = makeController(3, 3, 3);
+    controller.setWinRule(new OXOWinRule.CustomShape("square", new int[][] {{0, 0}, {0, 1}, {1, 0}, {1, 1}}));
+    play(controller, "b2", "a1", "b3", "a2", "c2", "a3");
+    assertNull(controller.gameModel.getWinner());
+    play(controller, "c3");
+    assertSame(controller.gameModel.getPlayerByNumber(0), controller.gameModel.getWinner());
+  }
+
+  // Games of the same size share a single compiled line table
+  @Test
+  void testLineTablesAreShared() {
+    OXOWinRule first = new OXOWinRule.StraightLine();
+    OXOWinRule second = new OXOWinRule.StraightLine();
+    OXOLineTable table = first.tableFor(7, 7, 4);
+    assertSame(table, second.tableFor(7, 7, 4));
+    // the evaluator and search look windows up in the same table
+    assertSame(table, OXOLineTable.get(7, 7, 4));
+    // 7 rows x 4 starts horizontally, the same vertically, and 4 x 4 on each diagonal
+    assertEquals(28 + 28 + 16 + 16, table.getNumberOfWindows());
+  }
+}